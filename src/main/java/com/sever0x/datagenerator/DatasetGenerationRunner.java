@@ -1,15 +1,21 @@
 package com.sever0x.datagenerator;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sever0x.datagenerator.jfr.RunRecording;
+import com.sever0x.datagenerator.job.JobHttpServer;
 import com.sever0x.datagenerator.service.DatasetGenerationService;
+import com.sever0x.datagenerator.service.DatasetReannotationService;
 import com.sever0x.datagenerator.service.DocumentFileService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.text.ParseException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -19,21 +25,71 @@ public class DatasetGenerationRunner implements CommandLineRunner {
 
 	private final DatasetGenerationService generationService;
 	private final DocumentFileService fileService;
+	private final DatasetReannotationService reannotationService;
+	private final JobHttpServer jobServer;
 
-	public DatasetGenerationRunner(DatasetGenerationService generationService, DocumentFileService fileService) {
+	public DatasetGenerationRunner(DatasetGenerationService generationService, DocumentFileService fileService,
+			DatasetReannotationService reannotationService, JobHttpServer jobServer) {
 		this.generationService = generationService;
 		this.fileService = fileService;
+		this.reannotationService = reannotationService;
+		this.jobServer = jobServer;
 	}
 
 	@Override
+	@SuppressWarnings("try") // The recording runs for as long as it is open
 	public void run(String... args) {
+		// JVM start to runner entry, i.e. everything the fast-start profile is meant to shrink
+		log.info("Startup took {} ms", ManagementFactory.getRuntimeMXBean().getUptime());
+
 		if (args.length == 0) {
 			System.out.println("Usage: java -jar app.jar --generate [--size=300] [--output=./dataset]");
+			System.out.println("       java -jar app.jar --generate --append --size=100 --output=./dataset");
+			System.out.println("       java -jar app.jar --reannotate=./dataset");
+			System.out.println("       java -jar app.jar --serve[=8085]");
+			System.out.println("Add --jfr[=run.jfr] to record the run with Java Flight Recorder");
 			return;
 		}
 
 		Map<String, String> params = parseArgs(args);
 
+		if (params.containsKey("jfr")) {
+			String jfrFile = "true".equals(params.get("jfr")) ? "generation.jfr" : params.get("jfr");
+			try (RunRecording recording = RunRecording.start(Paths.get(jfrFile))) {
+				runCommands(params);
+			} catch (IOException | ParseException e) {
+				throw new RuntimeException("Failed to start flight recording", e);
+			}
+		} else {
+			runCommands(params);
+		}
+	}
+
+	private void runCommands(Map<String, String> params) {
+		if (params.containsKey("serve")) {
+			int port = "true".equals(params.get("serve")) ? 8085 : Integer.parseInt(params.get("serve"));
+			try {
+				// The server threads keep the process alive after the runner returns
+				jobServer.start(port);
+			} catch (IOException e) {
+				throw new RuntimeException("Failed to start job service on port " + port, e);
+			}
+			System.out.println("Serving generation jobs on http://127.0.0.1:" + port + "/jobs");
+		}
+
+		if (params.containsKey("reannotate")) {
+			System.out.println("Re-annotating dataset...");
+			long start = System.currentTimeMillis();
+
+			int documents = reannotationService.reannotate(params.get("reannotate"));
+
+			long duration = (System.currentTimeMillis() - start) / 1000;
+			System.out.println("Re-annotated " + documents + " documents in " + duration + "s");
+			System.out.println("Files saved to: " + fileService.getDatasetPath());
+
+			showStats();
+		}
+
 		if (params.containsKey("generate")) {
 			if (params.containsKey("size")) {
 				int size = Integer.parseInt(params.get("size"));
@@ -44,7 +100,10 @@ public class DatasetGenerationRunner implements CommandLineRunner {
 				fileService.setBasePath(params.get("output"));
 			}
 
-			System.out.println("Starting dataset generation...");
+			// Only the new documents are generated, split and appended
+			generationService.setAppend(params.containsKey("append"));
+
+			System.out.println(params.containsKey("append") ? "Appending to dataset..." : "Starting dataset generation...");
 			long start = System.currentTimeMillis();
 
 			generationService.generateFullDataset();
@@ -68,6 +127,7 @@ public class DatasetGenerationRunner implements CommandLineRunner {
 		return params;
 	}
 
+	@SuppressWarnings("unchecked")
 	private void showStats() {
 		try {
 			String statsPath = fileService.getDatasetPath() + "/statistics/dataset_stats.json";
@@ -81,6 +141,11 @@ public class DatasetGenerationRunner implements CommandLineRunner {
 
 				Map<String, Integer> entities = (Map<String, Integer>) stats.get("entity_counts");
 				System.out.println("Entities: " + entities);
+
+				Map<String, Integer> rejections = (Map<String, Integer>) stats.get("rejection_counts");
+				if (rejections != null && !rejections.isEmpty()) {
+					System.out.println("Rejected generations: " + rejections);
+				}
 			}
 		} catch (Exception e) {
 			log.warn("Could not show stats", e);
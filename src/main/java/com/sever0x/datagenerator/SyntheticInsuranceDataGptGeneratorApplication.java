@@ -1,9 +1,12 @@
 package com.sever0x.datagenerator;
 
+import com.sever0x.datagenerator.data.InsuranceEntities;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
 @SpringBootApplication
+@RegisterReflectionForBinding(InsuranceEntities.class)
 public class SyntheticInsuranceDataGptGeneratorApplication {
 
 	public static void main(String[] args) {
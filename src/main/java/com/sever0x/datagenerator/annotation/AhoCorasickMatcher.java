@@ -0,0 +1,130 @@
+package com.sever0x.datagenerator.annotation;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+
+/**
+ * Multi-pattern matcher that finds every occurrence of every pattern in a single pass over the text.
+ * Each pattern carries an integer payload; if the same string is added twice the lowest payload is kept.
+ */
+public final class AhoCorasickMatcher {
+
+	@FunctionalInterface
+	public interface MatchHandler {
+		void onMatch(int start, int end, int payload);
+	}
+
+	private static final char[] NO_KEYS = new char[0];
+	private static final Node[] NO_CHILDREN = new Node[0];
+
+	private static final class Node {
+		char[] keys = NO_KEYS;
+		Node[] children = NO_CHILDREN;
+		int childCount;
+		Node fail;
+		Node output;
+		int depth;
+		int payload = -1;
+
+		Node child(char c) {
+			int idx = Arrays.binarySearch(keys, 0, childCount, c);
+			return idx >= 0 ? children[idx] : null;
+		}
+
+		Node addChild(char c) {
+			int idx = Arrays.binarySearch(keys, 0, childCount, c);
+			if (idx >= 0) {
+				return children[idx];
+			}
+			int insertAt = -idx - 1;
+			if (childCount == keys.length) {
+				int capacity = Math.max(2, childCount * 2);
+				keys = Arrays.copyOf(keys, capacity);
+				children = Arrays.copyOf(children, capacity);
+			}
+			System.arraycopy(keys, insertAt, keys, insertAt + 1, childCount - insertAt);
+			System.arraycopy(children, insertAt, children, insertAt + 1, childCount - insertAt);
+			Node node = new Node();
+			node.depth = depth + 1;
+			keys[insertAt] = c;
+			children[insertAt] = node;
+			childCount++;
+			return node;
+		}
+	}
+
+	private final Node root = new Node();
+	private boolean built;
+	private int patternCount;
+
+	public void add(CharSequence pattern, int payload) {
+		if (built) {
+			throw new IllegalStateException("Matcher already built");
+		}
+		if (pattern.isEmpty()) {
+			return;
+		}
+		Node node = root;
+		for (int i = 0; i < pattern.length(); i++) {
+			node = node.addChild(pattern.charAt(i));
+		}
+		if (node.payload == -1) {
+			patternCount++;
+			node.payload = payload;
+		} else {
+			node.payload = Math.min(node.payload, payload);
+		}
+	}
+
+	public boolean isEmpty() {
+		return patternCount == 0;
+	}
+
+	private void build() {
+		Queue<Node> queue = new ArrayDeque<>();
+		root.fail = root;
+		for (int i = 0; i < root.childCount; i++) {
+			root.children[i].fail = root;
+			queue.add(root.children[i]);
+		}
+
+		while (!queue.isEmpty()) {
+			Node node = queue.poll();
+			node.output = node.fail.payload != -1 ? node.fail : node.fail.output;
+
+			for (int i = 0; i < node.childCount; i++) {
+				char c = node.keys[i];
+				Node child = node.children[i];
+				Node fallback = node.fail;
+				while (fallback != root && fallback.child(c) == null) {
+					fallback = fallback.fail;
+				}
+				Node target = fallback.child(c);
+				child.fail = target != null && target != child ? target : root;
+				queue.add(child);
+			}
+		}
+		built = true;
+	}
+
+	public void scan(CharSequence text, MatchHandler handler) {
+		if (!built) {
+			build();
+		}
+		Node state = root;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			Node next = state.child(c);
+			while (next == null && state != root) {
+				state = state.fail;
+				next = state.child(c);
+			}
+			state = next != null ? next : root;
+
+			for (Node hit = state.payload != -1 ? state : state.output; hit != null; hit = hit.output) {
+				handler.onMatch(i + 1 - hit.depth, i + 1, hit.payload);
+			}
+		}
+	}
+}
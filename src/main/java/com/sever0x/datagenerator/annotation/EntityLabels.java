@@ -0,0 +1,72 @@
+package com.sever0x.datagenerator.annotation;
+
+import com.sever0x.datagenerator.types.EntityType;
+
+/**
+ * Compact byte encoding of token labels. {@code 0} is the outside label, every other ID packs an
+ * {@link EntityType} with one of the BIOES tags, so a document's labels fit in a single {@code byte[]}.
+ */
+public final class EntityLabels {
+
+	public static final byte OUTSIDE = 0;
+
+	public static final int TAG_BEGIN = 0;
+	public static final int TAG_INSIDE = 1;
+	public static final int TAG_END = 2;
+	public static final int TAG_SINGLE = 3;
+
+	private static final int TAG_COUNT = 4;
+	private static final char[] TAG_CHARS = {'B', 'I', 'E', 'S'};
+
+	public static final int LABEL_COUNT = 1 + EntityType.values().length * TAG_COUNT;
+
+	private static final String[] CONLL_NAMES = new String[LABEL_COUNT];
+	private static final String[] BIOES_NAMES = new String[LABEL_COUNT];
+	private static final String[] IOB2_NAMES = new String[LABEL_COUNT];
+
+	static {
+		CONLL_NAMES[OUTSIDE] = "O";
+		BIOES_NAMES[OUTSIDE] = "O";
+		IOB2_NAMES[OUTSIDE] = "O";
+		for (EntityType type : EntityType.values()) {
+			for (int tag = 0; tag < TAG_COUNT; tag++) {
+				// The CoNLL files have always used B/I/S; an end tag is written as inside
+				char written = tag == TAG_END ? 'I' : TAG_CHARS[tag];
+				CONLL_NAMES[encode(type, tag)] = written + "-" + type.name();
+				BIOES_NAMES[encode(type, tag)] = TAG_CHARS[tag] + "-" + type.name();
+				IOB2_NAMES[encode(type, tag)] = (tag == TAG_BEGIN || tag == TAG_SINGLE ? 'B' : 'I') + "-" + type.name();
+			}
+		}
+	}
+
+	private EntityLabels() {
+	}
+
+	public static byte encode(EntityType type, int tag) {
+		return (byte) (1 + type.ordinal() * TAG_COUNT + tag);
+	}
+
+	public static EntityType typeOf(byte label) {
+		return label == OUTSIDE ? null : EntityType.byOrdinal((label - 1) / TAG_COUNT);
+	}
+
+	public static int tagOf(byte label) {
+		return label == OUTSIDE ? -1 : (label - 1) % TAG_COUNT;
+	}
+
+	public static char tagChar(byte label) {
+		return label == OUTSIDE ? 'O' : TAG_CHARS[tagOf(label)];
+	}
+
+	public static String toConll(byte label) {
+		return CONLL_NAMES[label];
+	}
+
+	public static String toBioes(byte label) {
+		return BIOES_NAMES[label];
+	}
+
+	public static String toIob2(byte label) {
+		return IOB2_NAMES[label];
+	}
+}
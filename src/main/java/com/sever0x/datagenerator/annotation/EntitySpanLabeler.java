@@ -0,0 +1,210 @@
+package com.sever0x.datagenerator.annotation;
+
+import com.sever0x.datagenerator.data.AnnotatedDocument;
+import com.sever0x.datagenerator.data.InsuranceEntities;
+import com.sever0x.datagenerator.types.EntityType;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tokenizes a document and labels every occurrence of every extracted entity. All entity strings of the
+ * document go into one {@link AhoCorasickMatcher}, the text is scanned once, and overlapping matches are
+ * resolved by {@link EntityType} priority first and match length second.
+ */
+@Component
+public class EntitySpanLabeler {
+
+	private static final Pattern SENTENCE_BREAK = Pattern.compile("\\n\\s*\\n|\\n(?=\\p{Upper})");
+
+	// Packed match key: type (high bits) | inverted length | start offset
+	private static final int LENGTH_BITS = 24;
+	private static final long MAX_LENGTH = (1L << LENGTH_BITS) - 1;
+
+	public AnnotatedDocument annotate(String text, InsuranceEntities entities) {
+		IntList tokenStarts = new IntList(text.length() / 4 + 8);
+		IntList tokenEnds = new IntList(text.length() / 4 + 8);
+		IntList sentenceStarts = new IntList(16);
+		tokenize(text, tokenStarts, tokenEnds, sentenceStarts);
+
+		byte[] labels = new byte[tokenStarts.size];
+		AnnotatedDocument document = new AnnotatedDocument(text, tokenStarts.toArray(), tokenEnds.toArray(), sentenceStarts.toArray(), labels);
+
+		if (entities != null && labels.length > 0) {
+			assignLabels(document, entities);
+		}
+		return document;
+	}
+
+	private void assignLabels(AnnotatedDocument document, InsuranceEntities entities) {
+		AhoCorasickMatcher matcher = new AhoCorasickMatcher();
+		for (EntityType type : EntityType.values()) {
+			for (String value : type.valuesOf(entities)) {
+				if (value != null) {
+					matcher.add(value.strip(), type.ordinal());
+				}
+			}
+		}
+		if (matcher.isEmpty()) return;
+
+		String text = document.getText();
+		LongList matches = new LongList(32);
+		matcher.scan(text, (start, end, type) -> {
+			if (isWordBoundary(text, start - 1) && isWordBoundary(text, end) && end - start <= MAX_LENGTH) {
+				matches.add(((long) type << (32 + LENGTH_BITS)) | ((MAX_LENGTH - (end - start)) << 32) | start);
+			}
+		});
+
+		long[] sorted = matches.toArray();
+		Arrays.sort(sorted);
+		for (long match : sorted) {
+			int type = (int) (match >>> (32 + LENGTH_BITS));
+			int length = (int) (MAX_LENGTH - ((match >>> 32) & MAX_LENGTH));
+			int start = (int) match;
+			labelSpan(document, EntityType.byOrdinal(type), start, start + length);
+		}
+	}
+
+	private void labelSpan(AnnotatedDocument document, EntityType type, int start, int end) {
+		int[] tokenStarts = document.getTokenStarts();
+		int[] sentenceStarts = document.getSentenceStarts();
+		byte[] labels = document.getLabels();
+
+		int first = tokenContaining(tokenStarts, start);
+		int last = tokenContaining(tokenStarts, end - 1);
+		if (first < 0 || last < first) return;
+
+		// Entities never span sentences
+		if (tokenContaining(sentenceStarts, first) != tokenContaining(sentenceStarts, last)) return;
+
+		for (int i = first; i <= last; i++) {
+			if (labels[i] != EntityLabels.OUTSIDE) return;
+		}
+
+		if (first == last) {
+			labels[first] = EntityLabels.encode(type, EntityLabels.TAG_SINGLE);
+		} else {
+			labels[first] = EntityLabels.encode(type, EntityLabels.TAG_BEGIN);
+			for (int i = first + 1; i < last; i++) {
+				labels[i] = EntityLabels.encode(type, EntityLabels.TAG_INSIDE);
+			}
+			labels[last] = EntityLabels.encode(type, EntityLabels.TAG_END);
+		}
+	}
+
+	/**
+	 * Index of the last element of {@code starts} that is {@code <= position}, or -1.
+	 */
+	private static int tokenContaining(int[] starts, int position) {
+		int idx = Arrays.binarySearch(starts, position);
+		return idx >= 0 ? idx : -idx - 2;
+	}
+
+	private static boolean isWordBoundary(String text, int index) {
+		return index < 0 || index >= text.length() || !Character.isLetterOrDigit(text.charAt(index));
+	}
+
+	/**
+	 * German-aware tokenization: sentence-final punctuation is split off and digit groups separated by
+	 * '.' or '-' are split into separate tokens. Offsets are recorded instead of token strings.
+	 * <p>
+	 * The splits match the original {@code (\d+)([.-])(\d+)} replacement exactly, including its
+	 * non-overlapping matches: the digits after a split separator cannot start the next match, so
+	 * {@code 15.03.2024} becomes {@code 15 . 03.2024} and {@code 1.234.567} becomes {@code 1 . 234.567}.
+	 */
+	private void tokenize(String text, IntList tokenStarts, IntList tokenEnds, IntList sentenceStarts) {
+		Matcher breaks = SENTENCE_BREAK.matcher(text);
+		int sentenceStart = 0;
+		while (sentenceStart <= text.length()) {
+			int sentenceEnd = breaks.find() ? breaks.start() : text.length();
+			int before = tokenStarts.size;
+			tokenizeSentence(text, sentenceStart, sentenceEnd, tokenStarts, tokenEnds);
+			if (tokenStarts.size > before) {
+				sentenceStarts.add(before);
+			}
+			if (sentenceEnd == text.length()) break;
+			sentenceStart = breaks.end();
+		}
+	}
+
+	private void tokenizeSentence(String text, int from, int to, IntList tokenStarts, IntList tokenEnds) {
+		int i = from;
+		while (i < to) {
+			while (i < to && Character.isWhitespace(text.charAt(i))) i++;
+			if (i >= to) break;
+
+			int chunkStart = i;
+			while (i < to && !Character.isWhitespace(text.charAt(i))) i++;
+			int chunkEnd = i;
+
+			boolean trailingPunctuation = chunkEnd - chunkStart > 1 && isSentencePunctuation(text.charAt(chunkEnd - 1));
+			int coreEnd = trailingPunctuation ? chunkEnd - 1 : chunkEnd;
+
+			int tokenStart = chunkStart;
+			// Digits consumed by the previous split
+			int consumed = chunkStart;
+			for (int k = chunkStart + 1; k < coreEnd - 1; k++) {
+				char c = text.charAt(k);
+				if ((c == '.' || c == '-') && k - 1 >= consumed && Character.isDigit(text.charAt(k - 1)) && Character.isDigit(text.charAt(k + 1))) {
+					tokenStarts.add(tokenStart);
+					tokenEnds.add(k);
+					tokenStarts.add(k);
+					tokenEnds.add(k + 1);
+					tokenStart = k + 1;
+					consumed = k + 1;
+					while (consumed < coreEnd && Character.isDigit(text.charAt(consumed))) consumed++;
+					k = consumed - 1;
+				}
+			}
+			tokenStarts.add(tokenStart);
+			tokenEnds.add(coreEnd);
+
+			if (trailingPunctuation) {
+				tokenStarts.add(coreEnd);
+				tokenEnds.add(chunkEnd);
+			}
+		}
+	}
+
+	private static boolean isSentencePunctuation(char c) {
+		return c == '.' || c == '!' || c == '?' || c == ':' || c == ';' || c == ',';
+	}
+
+	private static final class IntList {
+		int[] values;
+		int size;
+
+		IntList(int capacity) {
+			values = new int[Math.max(capacity, 4)];
+		}
+
+		void add(int value) {
+			if (size == values.length) values = Arrays.copyOf(values, size * 2);
+			values[size++] = value;
+		}
+
+		int[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+	}
+
+	private static final class LongList {
+		long[] values;
+		int size;
+
+		LongList(int capacity) {
+			values = new long[capacity];
+		}
+
+		void add(long value) {
+			if (size == values.length) values = Arrays.copyOf(values, size * 2);
+			values[size++] = value;
+		}
+
+		long[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+	}
+}
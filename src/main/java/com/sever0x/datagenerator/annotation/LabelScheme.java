@@ -0,0 +1,30 @@
+package com.sever0x.datagenerator.annotation;
+
+/**
+ * Ways of writing the {@link EntityLabels} byte IDs as tag strings.
+ */
+public enum LabelScheme {
+	/** B/I/S, as the CoNLL files have always been written. */
+	CONLL {
+		@Override
+		public String nameOf(byte label) {
+			return EntityLabels.toConll(label);
+		}
+	},
+	/** Strict IOB2: every entity starts with B, continuation tokens are I. */
+	IOB2 {
+		@Override
+		public String nameOf(byte label) {
+			return EntityLabels.toIob2(label);
+		}
+	},
+	/** Full BIOES, including end tags. */
+	BIOES {
+		@Override
+		public String nameOf(byte label) {
+			return EntityLabels.toBioes(label);
+		}
+	};
+
+	public abstract String nameOf(byte label);
+}
@@ -0,0 +1,169 @@
+package com.sever0x.datagenerator.coverage;
+
+import com.sever0x.datagenerator.annotation.EntityLabels;
+import com.sever0x.datagenerator.job.JobScoped;
+import com.sever0x.datagenerator.types.DocumentType;
+import com.sever0x.datagenerator.types.EntityType;
+import com.sever0x.datagenerator.types.GenerationVariant;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Target-driven sampling of document type and generation variant. Tracks labeled spans per entity type for
+ * every cell, learns the expected yield of each cell from the documents completed so far, and samples cells in
+ * proportion to how much they contribute to the targets that are still open. The run is complete once every
+ * target is met.
+ * <p>
+ * Variants whose prompt is built from the document type have one cell per (document type, variant); the others
+ * send the same prompt whatever the type and have a single cell each, with the document type of a pick drawn at
+ * random.
+ */
+@Slf4j
+@Component
+@JobScoped
+public class CoverageScheduler {
+
+	private static final DocumentType[] DOCUMENT_TYPES = DocumentType.values();
+	private static final GenerationVariant[] VARIANTS = GenerationVariant.values();
+	private static final int ENTITY_TYPES = EntityType.values().length;
+	private static final List<Pick> CELLS = new ArrayList<>();
+	// Cell index per (document type, variant)
+	private static final int[][] CELL_OF = new int[DOCUMENT_TYPES.length][VARIANTS.length];
+
+	static {
+		for (GenerationVariant variant : VARIANTS) {
+			for (DocumentType docType : DOCUMENT_TYPES) {
+				if (variant.isTyped() || docType.ordinal() == 0) {
+					CELLS.add(new Pick(variant.isTyped() ? docType : null, variant));
+				}
+				CELL_OF[docType.ordinal()][variant.ordinal()] = CELLS.size() - 1;
+			}
+		}
+	}
+
+	// Optimistic prior so cells without completed documents still get tried
+	private static final double PRIOR_SPANS = 1.0;
+
+	@Value("${dataset.coverage.targets:}")
+	private String targetSpec;
+
+	@Value("${dataset.coverage.exploration:0.1}")
+	private double exploration;
+
+	private List<CoverageTarget> targets = List.of();
+	private long[] covered = new long[0];
+	private final long[] cellDocuments = new long[CELLS.size()];
+	private final long[][] cellSpans = new long[CELLS.size()][ENTITY_TYPES];
+
+	@Getter
+	@AllArgsConstructor
+	public static final class Pick {
+		private final DocumentType documentType;
+		private final GenerationVariant variant;
+	}
+
+	/**
+	 * Parses the configured targets and clears the running coverage.
+	 */
+	public synchronized void start() {
+		targets = CoverageTarget.parseAll(targetSpec);
+		covered = new long[targets.size()];
+		for (int c = 0; c < CELLS.size(); c++) {
+			cellDocuments[c] = 0;
+			cellSpans[c] = new long[ENTITY_TYPES];
+		}
+		if (!targets.isEmpty()) {
+			log.info("Sampling towards coverage targets {}", targets);
+		}
+	}
+
+	public synchronized boolean isEnabled() {
+		return !targets.isEmpty();
+	}
+
+	public synchronized boolean isComplete() {
+		if (targets.isEmpty()) return false;
+		for (int t = 0; t < targets.size(); t++) {
+			if (covered[t] < targets.get(t).getRequired()) return false;
+		}
+		return true;
+	}
+
+	public synchronized Pick next() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		if (random.nextDouble() < exploration) {
+			return new Pick(DOCUMENT_TYPES[random.nextInt(DOCUMENT_TYPES.length)], VARIANTS[random.nextInt(VARIANTS.length)]);
+		}
+
+		double[] weights = new double[CELLS.size()];
+		double total = 0;
+		for (int c = 0; c < CELLS.size(); c++) {
+			Pick cell = CELLS.get(c);
+			double weight = 0;
+			for (int t = 0; t < targets.size(); t++) {
+				CoverageTarget target = targets.get(t);
+				long missing = target.getRequired() - covered[t];
+				if (missing > 0 && target.appliesTo(cell.documentType, cell.variant)) {
+					weight += (double) missing / target.getRequired() * expectedSpans(c, target.getEntityType());
+				}
+			}
+			weights[c] = weight;
+			total += weight;
+		}
+		if (total <= 0) {
+			return new Pick(DOCUMENT_TYPES[random.nextInt(DOCUMENT_TYPES.length)], VARIANTS[random.nextInt(VARIANTS.length)]);
+		}
+
+		double roll = random.nextDouble() * total;
+		int c = 0;
+		while (c < weights.length - 1 && (roll -= weights[c]) >= 0) {
+			c++;
+		}
+		Pick cell = CELLS.get(c);
+		return cell.documentType != null ? cell : new Pick(DOCUMENT_TYPES[random.nextInt(DOCUMENT_TYPES.length)], cell.variant);
+	}
+
+	/**
+	 * Adds the labeled spans of a completed document, counted from its begin and single labels.
+	 */
+	public synchronized void record(DocumentType docType, GenerationVariant variant, int[] labelCounts) {
+		if (variant == null || labelCounts == null) return;
+		int cell = CELL_OF[docType.ordinal()][variant.ordinal()];
+		long[] spans = cellSpans[cell];
+		cellDocuments[cell]++;
+
+		for (EntityType type : EntityType.values()) {
+			int count = labelCounts[EntityLabels.encode(type, EntityLabels.TAG_BEGIN)]
+					+ labelCounts[EntityLabels.encode(type, EntityLabels.TAG_SINGLE)];
+			spans[type.ordinal()] += count;
+
+			for (int t = 0; t < targets.size(); t++) {
+				CoverageTarget target = targets.get(t);
+				if (target.getEntityType() == type && target.appliesTo(docType, variant)) {
+					covered[t] += count;
+				}
+			}
+		}
+	}
+
+	public synchronized Map<String, String> progress() {
+		Map<String, String> progress = new LinkedHashMap<>();
+		for (int t = 0; t < targets.size(); t++) {
+			progress.put(targets.get(t).toString(), covered[t] + "/" + targets.get(t).getRequired());
+		}
+		return progress;
+	}
+
+	private double expectedSpans(int cell, EntityType entityType) {
+		return (cellSpans[cell][entityType.ordinal()] + PRIOR_SPANS) / (cellDocuments[cell] + 1);
+	}
+}
@@ -0,0 +1,84 @@
+package com.sever0x.datagenerator.coverage;
+
+import com.sever0x.datagenerator.types.DocumentType;
+import com.sever0x.datagenerator.types.EntityType;
+import com.sever0x.datagenerator.types.GenerationVariant;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimum number of labeled spans of one {@link EntityType}, optionally restricted to a {@link DocumentType}
+ * or a {@link GenerationVariant}. Written as {@code [SCOPE/]ENTITY=COUNT}, e.g. {@code PERSON_NAME=50000} or
+ * {@code EDGE_CASE/CONTRACT_NUMBER=10000}.
+ */
+@Getter
+@AllArgsConstructor
+public class CoverageTarget {
+	private final DocumentType documentType;
+	private final GenerationVariant variant;
+	private final EntityType entityType;
+	private final long required;
+
+	/**
+	 * Whether documents of a type and variant count towards this target. A document-type scope only matches
+	 * variants whose prompt is built from the document type.
+	 */
+	public boolean appliesTo(DocumentType docType, GenerationVariant generationVariant) {
+		if (documentType != null && (!generationVariant.isTyped() || documentType != docType)) return false;
+		return variant == null || variant == generationVariant;
+	}
+
+	@Override
+	public String toString() {
+		String scope = documentType != null ? documentType.name() + "/" : variant != null ? variant.name() + "/" : "";
+		return scope + entityType.name();
+	}
+
+	/**
+	 * Parses a comma-separated target list; an empty spec yields no targets.
+	 */
+	public static List<CoverageTarget> parseAll(String spec) {
+		List<CoverageTarget> targets = new ArrayList<>();
+		if (spec == null || spec.isBlank()) return targets;
+
+		for (String entry : spec.split(",")) {
+			if (!entry.isBlank()) {
+				targets.add(parse(entry.strip()));
+			}
+		}
+		return targets;
+	}
+
+	public static CoverageTarget parse(String entry) {
+		int equals = entry.indexOf('=');
+		if (equals < 0) {
+			throw new IllegalArgumentException("Coverage target '" + entry + "' is missing '=COUNT'");
+		}
+		long required = Long.parseLong(entry.substring(equals + 1).strip());
+		String key = entry.substring(0, equals).strip().toUpperCase();
+
+		DocumentType documentType = null;
+		GenerationVariant variant = null;
+		int slash = key.indexOf('/');
+		if (slash >= 0) {
+			String scope = key.substring(0, slash);
+			key = key.substring(slash + 1);
+			if (isDocumentType(scope)) {
+				documentType = DocumentType.valueOf(scope);
+			} else {
+				variant = GenerationVariant.valueOf(scope);
+			}
+		}
+		return new CoverageTarget(documentType, variant, EntityType.valueOf(key), required);
+	}
+
+	private static boolean isDocumentType(String name) {
+		for (DocumentType type : DocumentType.values()) {
+			if (type.name().equals(name)) return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,72 @@
+package com.sever0x.datagenerator.data;
+
+import com.sever0x.datagenerator.annotation.EntityLabels;
+import com.sever0x.datagenerator.annotation.LabelScheme;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Tokenized and labeled document. Tokens are kept as character offsets into {@code text} and labels as
+ * {@link EntityLabels} byte IDs; {@code sentenceStarts[s]} is the index of the first token of sentence {@code s}.
+ */
+@Getter
+@AllArgsConstructor
+public class AnnotatedDocument {
+	private final String text;
+	private final int[] tokenStarts;
+	private final int[] tokenEnds;
+	private final int[] sentenceStarts;
+	private final byte[] labels;
+
+	public int getTokenCount() {
+		return labels.length;
+	}
+
+	public int getSentenceCount() {
+		return sentenceStarts.length;
+	}
+
+	public int sentenceEnd(int sentence) {
+		return sentence + 1 < sentenceStarts.length ? sentenceStarts[sentence + 1] : labels.length;
+	}
+
+	public int[] labelCounts() {
+		int[] counts = new int[EntityLabels.LABEL_COUNT];
+		for (byte label : labels) {
+			counts[label]++;
+		}
+		return counts;
+	}
+
+	public String token(int index) {
+		return text.substring(tokenStarts[index], tokenEnds[index]);
+	}
+
+	public String toConll() {
+		StringBuilder conllOutput = new StringBuilder(text.length() * 2);
+		try {
+			appendColumns(conllOutput, LabelScheme.CONLL);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e); // StringBuilder does not throw
+		}
+		return conllOutput.toString();
+	}
+
+	/**
+	 * Appends one "token TAB label" line per token and a blank line after each sentence.
+	 */
+	public void appendColumns(Appendable out, LabelScheme scheme) throws IOException {
+		for (int s = 0; s < sentenceStarts.length; s++) {
+			for (int i = sentenceStarts[s]; i < sentenceEnd(s); i++) {
+				out.append(text, tokenStarts[i], tokenEnds[i])
+						.append('\t')
+						.append(scheme.nameOf(labels[i]))
+						.append('\n');
+			}
+			out.append('\n');
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package com.sever0x.datagenerator.data;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contents of a dataset directory, kept in {@code manifest.json} so an {@code --append} run can continue the ID
+ * sequence and add to the splits without reading the existing documents back.
+ */
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DatasetManifest {
+
+	@JsonProperty("max_document_id")
+	private int maxDocumentId;
+
+	@JsonProperty("storage_layout")
+	private String storageLayout;
+
+	@JsonProperty("export_formats")
+	private List<String> exportFormats = new ArrayList<>();
+
+	// Document IDs per split, in the order they were written
+	@JsonProperty("splits")
+	private Map<String, List<Integer>> splits = new LinkedHashMap<>();
+
+	@JsonProperty("runs")
+	private List<Run> runs = new ArrayList<>();
+
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class Run {
+		@JsonProperty("date")
+		private String date;
+
+		@JsonProperty("append")
+		private boolean append;
+
+		@JsonProperty("documents")
+		private int documents;
+
+		@JsonProperty("first_document_id")
+		private int firstDocumentId;
+
+		@JsonProperty("last_document_id")
+		private int lastDocumentId;
+	}
+}
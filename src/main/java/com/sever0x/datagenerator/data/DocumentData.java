@@ -9,8 +9,9 @@ import lombok.Data;
 public class DocumentData {
 	private int documentId;
 	private String rawContent;
-	private String conllContent;
+	private AnnotatedDocument annotated;
 	private InsuranceEntities entities;
 	private DocumentType documentType;
 	private String filePath;
+	private int[] labelCounts;
 }
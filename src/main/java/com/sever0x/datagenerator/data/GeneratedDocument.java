@@ -0,0 +1,18 @@
+package com.sever0x.datagenerator.data;
+
+import com.sever0x.datagenerator.types.DocumentType;
+import com.sever0x.datagenerator.types.GenerationVariant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Document that passed the quality gate and is waiting for entity extraction.
+ */
+@Data
+@AllArgsConstructor
+public class GeneratedDocument {
+	private int documentId;
+	private DocumentType documentType;
+	private GenerationVariant variant;
+	private String content;
+}
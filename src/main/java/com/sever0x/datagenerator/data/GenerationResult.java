@@ -0,0 +1,11 @@
+package com.sever0x.datagenerator.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class GenerationResult {
+	private String content;
+	private String finishReason;
+}
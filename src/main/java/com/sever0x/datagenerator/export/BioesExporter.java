@@ -0,0 +1,20 @@
+package com.sever0x.datagenerator.export;
+
+import com.sever0x.datagenerator.annotation.LabelScheme;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code exports/bioes/<split>.conll} with full BIOES tags, including end tags.
+ */
+@Component
+public class BioesExporter extends ColumnExporter {
+
+	public BioesExporter() {
+		super("exports/bioes", ".conll", LabelScheme.BIOES);
+	}
+
+	@Override
+	public String getFormat() {
+		return "bioes";
+	}
+}
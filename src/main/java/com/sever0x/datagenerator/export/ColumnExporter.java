@@ -0,0 +1,57 @@
+package com.sever0x.datagenerator.export;
+
+import com.sever0x.datagenerator.annotation.LabelScheme;
+import com.sever0x.datagenerator.data.AnnotatedDocument;
+import com.sever0x.datagenerator.data.DocumentData;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Two-column "token TAB label" files with a blank line between sentences, the layout shared by CoNLL and
+ * Flair's ColumnCorpus.
+ */
+abstract class ColumnExporter implements DatasetExporter {
+
+	private final String directory;
+	private final String extension;
+	private final LabelScheme scheme;
+
+	ColumnExporter(String directory, String extension, LabelScheme scheme) {
+		this.directory = directory;
+		this.extension = extension;
+		this.scheme = scheme;
+	}
+
+	@Override
+	public SplitWriter open(Path datasetPath, String split, boolean append) throws IOException {
+		Path dir = datasetPath.resolve(directory);
+		Files.createDirectories(dir);
+		Path file = dir.resolve(split + extension);
+		BufferedWriter writer = append
+				? Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)
+				: Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+
+		return new SplitWriter() {
+			@Override
+			public void write(DocumentData document, AnnotatedDocument annotated) throws IOException {
+				annotated.appendColumns(writer, scheme);
+				writer.write("\n\n");
+			}
+
+			@Override
+			public Path getPath() {
+				return file;
+			}
+
+			@Override
+			public void close() throws IOException {
+				writer.close();
+			}
+		};
+	}
+}
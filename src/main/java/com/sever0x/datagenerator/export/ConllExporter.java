@@ -0,0 +1,20 @@
+package com.sever0x.datagenerator.export;
+
+import com.sever0x.datagenerator.annotation.LabelScheme;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code training_data/<split>.conll}, the repository's B/I/S CoNLL format.
+ */
+@Component
+public class ConllExporter extends ColumnExporter {
+
+	public ConllExporter() {
+		super("training_data", ".conll", LabelScheme.CONLL);
+	}
+
+	@Override
+	public String getFormat() {
+		return "conll";
+	}
+}
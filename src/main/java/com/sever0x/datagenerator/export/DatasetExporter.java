@@ -0,0 +1,35 @@
+package com.sever0x.datagenerator.export;
+
+import com.sever0x.datagenerator.data.AnnotatedDocument;
+import com.sever0x.datagenerator.data.DocumentData;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * One output format of the training splits. Every enabled exporter opens a writer per split and is fed each
+ * document's token/label stream as the split is assembled, so the corpus is walked once for all formats.
+ */
+public interface DatasetExporter {
+
+	/**
+	 * Name used in {@code dataset.export.formats}.
+	 */
+	String getFormat();
+
+	/**
+	 * Opens the split's file; with {@code append} new documents go after the ones already in it, which are not
+	 * read back.
+	 */
+	SplitWriter open(Path datasetPath, String split, boolean append) throws IOException;
+
+	interface SplitWriter extends Closeable {
+		void write(DocumentData document, AnnotatedDocument annotated) throws IOException;
+
+		/**
+		 * File the split is written to.
+		 */
+		Path getPath();
+	}
+}
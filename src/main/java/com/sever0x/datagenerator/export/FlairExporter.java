@@ -0,0 +1,20 @@
+package com.sever0x.datagenerator.export;
+
+import com.sever0x.datagenerator.annotation.LabelScheme;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code flair_ready/<split>.txt}, CoNLL content under the file names Flair's ColumnCorpus expects.
+ */
+@Component
+public class FlairExporter extends ColumnExporter {
+
+	public FlairExporter() {
+		super("flair_ready", ".txt", LabelScheme.CONLL);
+	}
+
+	@Override
+	public String getFormat() {
+		return "flair";
+	}
+}
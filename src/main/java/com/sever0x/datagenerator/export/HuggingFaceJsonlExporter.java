@@ -0,0 +1,109 @@
+package com.sever0x.datagenerator.export;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.sever0x.datagenerator.annotation.EntityLabels;
+import com.sever0x.datagenerator.data.AnnotatedDocument;
+import com.sever0x.datagenerator.data.DocumentData;
+import org.springframework.stereotype.Component;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * {@code exports/hf/<split>.jsonl}, one document per line for {@code datasets.load_dataset("json", ...)}:
+ * tokens with character offsets, IOB2 {@code ner_tags} and the entity spans as character ranges.
+ */
+@Component
+public class HuggingFaceJsonlExporter implements DatasetExporter {
+
+	private static final JsonFactory JSON = new JsonFactory();
+
+	@Override
+	public String getFormat() {
+		return "hf_jsonl";
+	}
+
+	@Override
+	public SplitWriter open(Path datasetPath, String split, boolean append) throws IOException {
+		Path dir = datasetPath.resolve("exports").resolve("hf");
+		Files.createDirectories(dir);
+		Path file = dir.resolve(split + ".jsonl");
+		boolean continuing = append && Files.exists(file) && Files.size(file) > 0;
+		JsonGenerator json = JSON.createGenerator(new FileOutputStream(file.toFile(), append), JsonEncoding.UTF8);
+		json.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+		if (continuing) {
+			// Records are separated, not terminated, by newlines
+			json.writeRaw('\n');
+		}
+
+		return new SplitWriter() {
+			@Override
+			public void write(DocumentData document, AnnotatedDocument annotated) throws IOException {
+				String text = annotated.getText();
+				int[] tokenStarts = annotated.getTokenStarts();
+				int[] tokenEnds = annotated.getTokenEnds();
+				byte[] labels = annotated.getLabels();
+
+				json.writeStartObject();
+				json.writeNumberField("id", document.getDocumentId());
+				json.writeStringField("document_type", document.getDocumentType().name());
+				json.writeStringField("text", text);
+
+				json.writeArrayFieldStart("tokens");
+				for (int i = 0; i < labels.length; i++) {
+					json.writeString(text.substring(tokenStarts[i], tokenEnds[i]));
+				}
+				json.writeEndArray();
+
+				json.writeArrayFieldStart("offsets");
+				for (int i = 0; i < labels.length; i++) {
+					json.writeStartArray();
+					json.writeNumber(tokenStarts[i]);
+					json.writeNumber(tokenEnds[i]);
+					json.writeEndArray();
+				}
+				json.writeEndArray();
+
+				json.writeArrayFieldStart("ner_tags");
+				for (byte label : labels) {
+					json.writeString(EntityLabels.toIob2(label));
+				}
+				json.writeEndArray();
+
+				json.writeArrayFieldStart("entities");
+				for (int i = 0; i < labels.length; i++) {
+					int tag = EntityLabels.tagOf(labels[i]);
+					if (tag != EntityLabels.TAG_BEGIN && tag != EntityLabels.TAG_SINGLE) continue;
+
+					int last = i;
+					while (tag == EntityLabels.TAG_BEGIN && last + 1 < labels.length && EntityLabels.tagOf(labels[last]) != EntityLabels.TAG_END) {
+						last++;
+					}
+					json.writeStartObject();
+					json.writeNumberField("start", tokenStarts[i]);
+					json.writeNumberField("end", tokenEnds[last]);
+					json.writeStringField("label", EntityLabels.typeOf(labels[i]).name());
+					json.writeEndObject();
+				}
+				json.writeEndArray();
+
+				json.writeEndObject();
+			}
+
+			@Override
+			public Path getPath() {
+				return file;
+			}
+
+			@Override
+			public void close() throws IOException {
+				json.close();
+			}
+		};
+	}
+}
@@ -0,0 +1,20 @@
+package com.sever0x.datagenerator.export;
+
+import com.sever0x.datagenerator.annotation.LabelScheme;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code exports/iob2/<split>.conll} with strict IOB2 tags.
+ */
+@Component
+public class Iob2Exporter extends ColumnExporter {
+
+	public Iob2Exporter() {
+		super("exports/iob2", ".conll", LabelScheme.IOB2);
+	}
+
+	@Override
+	public String getFormat() {
+		return "iob2";
+	}
+}
@@ -0,0 +1,140 @@
+package com.sever0x.datagenerator.export;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.sever0x.datagenerator.annotation.EntityLabels;
+import com.sever0x.datagenerator.data.AnnotatedDocument;
+import com.sever0x.datagenerator.data.DocumentData;
+import org.springframework.stereotype.Component;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@code exports/spacy/<split>.json} in spaCy's pre-tokenized JSON training format with BILUO tags.
+ * {@code python -m spacy convert <split>.json .} turns it into a {@code .spacy} DocBin without re-tokenizing.
+ */
+@Component
+public class SpacyJsonExporter implements DatasetExporter {
+
+	private static final JsonFactory JSON = new JsonFactory();
+	private static final char[] BILUO = {'B', 'I', 'L', 'U'};
+
+	@Override
+	public String getFormat() {
+		return "spacy";
+	}
+
+	@Override
+	public SplitWriter open(Path datasetPath, String split, boolean append) throws IOException {
+		Path dir = datasetPath.resolve("exports").resolve("spacy");
+		Files.createDirectories(dir);
+		Path file = dir.resolve(split + ".json");
+		boolean reopened = append && Files.exists(file);
+		JsonGenerator json;
+		if (reopened) {
+			// Reopen the array in place: drop its closing bracket and write the new documents as further elements
+			boolean empty = reopenArray(file);
+			json = JSON.createGenerator(new FileOutputStream(file.toFile(), true), JsonEncoding.UTF8);
+			json.setRootValueSeparator(new SerializedString(","));
+			if (!empty) {
+				json.writeRaw(',');
+			}
+		} else {
+			json = JSON.createGenerator(file.toFile(), JsonEncoding.UTF8);
+			json.writeStartArray();
+		}
+
+		return new SplitWriter() {
+			@Override
+			public void write(DocumentData document, AnnotatedDocument annotated) throws IOException {
+				String text = annotated.getText();
+				int[] tokenStarts = annotated.getTokenStarts();
+				int[] tokenEnds = annotated.getTokenEnds();
+				byte[] labels = annotated.getLabels();
+
+				json.writeStartObject();
+				json.writeNumberField("id", document.getDocumentId());
+				json.writeArrayFieldStart("paragraphs");
+				json.writeStartObject();
+				json.writeStringField("raw", text);
+				json.writeArrayFieldStart("sentences");
+				for (int s = 0; s < annotated.getSentenceCount(); s++) {
+					json.writeStartObject();
+					json.writeArrayFieldStart("tokens");
+					for (int i = annotated.getSentenceStarts()[s]; i < annotated.sentenceEnd(s); i++) {
+						json.writeStartObject();
+						json.writeNumberField("id", i);
+						json.writeStringField("orth", text.substring(tokenStarts[i], tokenEnds[i]));
+						json.writeBooleanField("space", i + 1 < tokenStarts.length && tokenStarts[i + 1] > tokenEnds[i]);
+						json.writeStringField("ner", biluo(labels[i]));
+						json.writeEndObject();
+					}
+					json.writeEndArray();
+					json.writeArrayFieldStart("brackets");
+					json.writeEndArray();
+					json.writeEndObject();
+				}
+				json.writeEndArray();
+				json.writeEndObject();
+				json.writeEndArray();
+				json.writeEndObject();
+			}
+
+			@Override
+			public Path getPath() {
+				return file;
+			}
+
+			@Override
+			public void close() throws IOException {
+				if (reopened) {
+					json.writeRaw(']');
+				} else {
+					json.writeEndArray();
+				}
+				json.close();
+			}
+		};
+	}
+
+	/**
+	 * Truncates the file before the closing bracket of its top-level array, looking only at the end of the file.
+	 * Returns whether the array has no elements.
+	 */
+	private static boolean reopenArray(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			long position = channel.size();
+			ByteBuffer one = ByteBuffer.allocate(1);
+			long bracket = -1;
+			while (--position >= 0) {
+				one.clear();
+				channel.read(one, position);
+				byte b = one.get(0);
+				if (bracket < 0) {
+					if (b == ']') {
+						bracket = position;
+					} else if (!Character.isWhitespace(b)) {
+						throw new IOException(file + " does not end with a JSON array");
+					}
+				} else if (!Character.isWhitespace(b)) {
+					channel.truncate(bracket);
+					return b == '[';
+				}
+			}
+			throw new IOException(file + " does not contain a JSON array");
+		}
+	}
+
+	private static String biluo(byte label) {
+		if (label == EntityLabels.OUTSIDE) return "O";
+		return BILUO[EntityLabels.tagOf(label)] + "-" + EntityLabels.typeOf(label).name();
+	}
+}
@@ -0,0 +1,50 @@
+package com.sever0x.datagenerator.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.sever0x.datagenerator.ApiCall")
+@Label("OpenAI Call")
+public class ApiCallEvent extends DocumentStageEvent {
+
+	@Label("Call Kind")
+	String callKind;
+
+	@Label("Model")
+	String model;
+
+	@Label("Prompt Characters")
+	long promptChars;
+
+	@Label("Response Characters")
+	long responseChars;
+
+	@Label("Prompt Tokens")
+	long promptTokens;
+
+	@Label("Completion Tokens")
+	long completionTokens;
+
+	@Label("Finish Reason")
+	String finishReason;
+
+	public static ApiCallEvent start(String callKind, String model, int promptChars) {
+		ApiCallEvent event = new ApiCallEvent();
+		event.callKind = callKind;
+		event.model = model;
+		event.promptChars = promptChars;
+		event.begin();
+		return event;
+	}
+
+	public void usage(long promptTokens, long completionTokens) {
+		this.promptTokens = promptTokens;
+		this.completionTokens = completionTokens;
+	}
+
+	public void finish(String response, String finishReason) {
+		this.responseChars = response != null ? response.length() : 0;
+		this.finishReason = finishReason;
+		commitWithContext();
+	}
+}
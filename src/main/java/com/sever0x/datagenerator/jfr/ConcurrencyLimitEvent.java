@@ -0,0 +1,47 @@
+package com.sever0x.datagenerator.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.sever0x.datagenerator.ConcurrencyLimit")
+@Label("OpenAI Concurrency Limit")
+@Category({"Insurance Dataset Generator", "Pipeline"})
+@Period("1 s")
+@StackTrace(false)
+public class ConcurrencyLimitEvent extends Event {
+
+	@Label("Limit")
+	int limit;
+
+	@Label("In Flight")
+	int inFlight;
+
+	@Label("Smoothed Latency")
+	@Timespan(Timespan.MILLISECONDS)
+	long latencyMs;
+
+	@Label("Baseline Latency")
+	@Timespan(Timespan.MILLISECONDS)
+	long baselineMs;
+
+	@Label("Throttled Calls")
+	long throttled;
+
+	/**
+	 * Emits one sample; called from the periodic hook registered with {@code FlightRecorder.addPeriodicEvent}.
+	 */
+	public static void emit(int limit, int inFlight, long latencyMs, long baselineMs, long throttled) {
+		ConcurrencyLimitEvent event = new ConcurrencyLimitEvent();
+		event.limit = limit;
+		event.inFlight = inFlight;
+		event.latencyMs = latencyMs;
+		event.baselineMs = baselineMs;
+		event.throttled = throttled;
+		event.commit();
+	}
+}
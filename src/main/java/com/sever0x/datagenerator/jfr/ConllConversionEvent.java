@@ -0,0 +1,31 @@
+package com.sever0x.datagenerator.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.sever0x.datagenerator.ConllConversion")
+@Label("CoNLL Conversion")
+public class ConllConversionEvent extends DocumentStageEvent {
+
+	@Label("Text Characters")
+	long textChars;
+
+	@Label("Tokens")
+	int tokenCount;
+
+	@Label("Sentences")
+	int sentenceCount;
+
+	public static ConllConversionEvent start(String text) {
+		ConllConversionEvent event = new ConllConversionEvent();
+		event.textChars = text.length();
+		event.begin();
+		return event;
+	}
+
+	public void finish(int tokenCount, int sentenceCount) {
+		this.tokenCount = tokenCount;
+		this.sentenceCount = sentenceCount;
+		commitWithContext();
+	}
+}
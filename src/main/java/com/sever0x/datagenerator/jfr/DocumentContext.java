@@ -0,0 +1,48 @@
+package com.sever0x.datagenerator.jfr;
+
+import com.sever0x.datagenerator.types.DocumentType;
+import com.sever0x.datagenerator.types.GenerationVariant;
+
+/**
+ * Per-thread record of the document currently being processed, so stage events deep in the services can be
+ * attributed to a document without threading IDs through every method signature.
+ */
+public final class DocumentContext {
+
+	private static final ThreadLocal<DocumentContext> CURRENT = new ThreadLocal<>();
+
+	private final int documentId;
+	private final DocumentType documentType;
+	private GenerationVariant variant;
+
+	private DocumentContext(int documentId, DocumentType documentType) {
+		this.documentId = documentId;
+		this.documentType = documentType;
+	}
+
+	public static void begin(int documentId, DocumentType documentType) {
+		CURRENT.set(new DocumentContext(documentId, documentType));
+	}
+
+	public static void setVariant(GenerationVariant variant) {
+		DocumentContext context = CURRENT.get();
+		if (context != null) {
+			context.variant = variant;
+		}
+	}
+
+	public static void clear() {
+		CURRENT.remove();
+	}
+
+	static void fill(DocumentStageEvent event) {
+		DocumentContext context = CURRENT.get();
+		if (context == null) {
+			event.documentId = -1;
+			return;
+		}
+		event.documentId = context.documentId;
+		event.documentType = context.documentType != null ? context.documentType.name() : null;
+		event.variant = context.variant != null ? context.variant.name() : null;
+	}
+}
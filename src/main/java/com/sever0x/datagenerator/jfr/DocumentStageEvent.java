@@ -0,0 +1,34 @@
+package com.sever0x.datagenerator.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base for events tied to a single document. Document fields are taken from {@link DocumentContext} on commit.
+ */
+@Category({"Insurance Dataset Generator", "Pipeline"})
+@StackTrace(false)
+public abstract class DocumentStageEvent extends Event {
+
+	@Label("Document ID")
+	@Description("-1 outside a document and during generation, before the document has its ID")
+	int documentId;
+
+	@Label("Document Type")
+	String documentType;
+
+	@Label("Variant")
+	@Description("Generation variant, null outside generation")
+	String variant;
+
+	void commitWithContext() {
+		end();
+		if (shouldCommit()) {
+			DocumentContext.fill(this);
+			commit();
+		}
+	}
+}
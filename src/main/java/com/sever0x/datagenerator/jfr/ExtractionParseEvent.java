@@ -0,0 +1,31 @@
+package com.sever0x.datagenerator.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.sever0x.datagenerator.ExtractionParse")
+@Label("Entity JSON Parse")
+public class ExtractionParseEvent extends DocumentStageEvent {
+
+	@Label("Response Characters")
+	long responseChars;
+
+	@Label("Parsed")
+	boolean parsed;
+
+	@Label("Recovered From Truncation")
+	boolean recovered;
+
+	public static ExtractionParseEvent start(String response) {
+		ExtractionParseEvent event = new ExtractionParseEvent();
+		event.responseChars = response != null ? response.length() : 0;
+		event.begin();
+		return event;
+	}
+
+	public void finish(boolean parsed, boolean recovered) {
+		this.parsed = parsed;
+		this.recovered = recovered;
+		commitWithContext();
+	}
+}
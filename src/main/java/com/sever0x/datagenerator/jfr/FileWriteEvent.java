@@ -0,0 +1,33 @@
+package com.sever0x.datagenerator.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.nio.file.Path;
+
+@Name("com.sever0x.datagenerator.FileWrite")
+@Label("Dataset File Write")
+public class FileWriteEvent extends DocumentStageEvent {
+
+	@Label("Kind")
+	String kind;
+
+	@Label("Path")
+	String path;
+
+	@Label("Characters")
+	long chars;
+
+	public static FileWriteEvent start(String kind) {
+		FileWriteEvent event = new FileWriteEvent();
+		event.kind = kind;
+		event.begin();
+		return event;
+	}
+
+	public void finish(Path path, long chars) {
+		this.path = path.toString();
+		this.chars = chars;
+		commitWithContext();
+	}
+}
@@ -0,0 +1,48 @@
+package com.sever0x.datagenerator.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+@Name("com.sever0x.datagenerator.PipelineQueue")
+@Label("Pipeline Queue Depth")
+@Category({"Insurance Dataset Generator", "Pipeline"})
+@Period("1 s")
+@StackTrace(false)
+public class PipelineQueueEvent extends Event {
+
+	@Label("Stage")
+	String stage;
+
+	@Label("Queued")
+	int depth;
+
+	@Label("Capacity")
+	int capacity;
+
+	@Label("Busy Workers")
+	int busy;
+
+	@Label("Workers")
+	int workers;
+
+	@Label("Processed")
+	long processed;
+
+	/**
+	 * Emits one sample per stage; called from the periodic hook registered with {@code FlightRecorder.addPeriodicEvent}.
+	 */
+	public static void emit(String stage, int depth, int capacity, int busy, int workers, long processed) {
+		PipelineQueueEvent event = new PipelineQueueEvent();
+		event.stage = stage;
+		event.depth = depth;
+		event.capacity = capacity;
+		event.busy = busy;
+		event.workers = workers;
+		event.processed = processed;
+		event.commit();
+	}
+}
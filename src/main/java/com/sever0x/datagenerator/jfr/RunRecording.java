@@ -0,0 +1,42 @@
+package com.sever0x.datagenerator.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+/**
+ * Flight recording spanning a whole run, using the JDK "default" settings plus the pipeline events.
+ * The file is written when the recording is closed and can be opened with {@code jfr print} or JMC.
+ */
+@Slf4j
+public final class RunRecording implements AutoCloseable {
+
+	private final Recording recording;
+	private final Path destination;
+
+	private RunRecording(Recording recording, Path destination) {
+		this.recording = recording;
+		this.destination = destination;
+	}
+
+	public static RunRecording start(Path destination) throws IOException, ParseException {
+		Recording recording = new Recording(Configuration.getConfiguration("default"));
+		recording.setName("dataset-generation");
+		recording.setToDisk(true);
+		recording.setDestination(destination);
+		recording.start();
+		log.info("Started flight recording, writing to {}", destination);
+		return new RunRecording(recording, destination);
+	}
+
+	@Override
+	public void close() {
+		recording.stop();
+		recording.close();
+		log.info("Flight recording saved to {}", destination);
+	}
+}
@@ -0,0 +1,39 @@
+package com.sever0x.datagenerator.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.sever0x.datagenerator.SplitAssembly")
+@Label("Training Split Assembly")
+@Category({"Insurance Dataset Generator", "Pipeline"})
+@StackTrace(false)
+public class SplitAssemblyEvent extends Event {
+
+	@Label("Split File")
+	String fileName;
+
+	@Label("Documents")
+	int documentCount;
+
+	@Label("Characters")
+	long chars;
+
+	public static SplitAssemblyEvent start(String fileName, int documentCount) {
+		SplitAssemblyEvent event = new SplitAssemblyEvent();
+		event.fileName = fileName;
+		event.documentCount = documentCount;
+		event.begin();
+		return event;
+	}
+
+	public void finish(long chars) {
+		end();
+		if (shouldCommit()) {
+			this.chars = chars;
+			commit();
+		}
+	}
+}
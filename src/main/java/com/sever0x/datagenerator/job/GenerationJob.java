@@ -0,0 +1,125 @@
+package com.sever0x.datagenerator.job;
+
+import com.sever0x.datagenerator.types.DocumentType;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A queued or running dataset generation request, together with the {@link JobScoped} beans it created.
+ */
+public class GenerationJob {
+
+	public enum Status { QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED }
+
+	@Getter
+	private final String id;
+	@Getter
+	private final int size;
+	@Getter
+	private final String outputPath;
+	@Getter
+	private final Map<DocumentType, Double> documentTypeMix;
+	private final Instant submittedAt = Instant.now();
+	private final AtomicInteger completedDocuments = new AtomicInteger();
+
+	@Getter
+	private volatile Status status = Status.QUEUED;
+	@Getter
+	private volatile boolean cancelled;
+	private volatile Instant startedAt;
+	private volatile Instant finishedAt;
+	private volatile String error;
+
+	// Guarded by this, so a cancel can never fall between setting the future and starting the job
+	private Future<?> future;
+
+	final Map<String, Object> beans = new HashMap<>();
+	final List<Runnable> destructionCallbacks = new ArrayList<>();
+
+	public GenerationJob(String id, int size, String outputPath, Map<DocumentType, Double> documentTypeMix) {
+		this.id = id;
+		this.size = size;
+		this.outputPath = outputPath;
+		this.documentTypeMix = documentTypeMix;
+	}
+
+	public int getCompletedDocuments() {
+		return completedDocuments.get();
+	}
+
+	public void documentCompleted() {
+		completedDocuments.incrementAndGet();
+	}
+
+	synchronized void setFuture(Future<?> future) {
+		this.future = future;
+		// Cancelled before the future was known
+		if (cancelled && status == Status.QUEUED && future.cancel(false)) {
+			finished(null);
+		}
+	}
+
+	/**
+	 * Moves a queued job to running; a job cancelled after its task was picked up is finished as cancelled.
+	 *
+	 * @return whether the job should run
+	 */
+	synchronized boolean start() {
+		if (status != Status.QUEUED) return false;
+		if (cancelled) {
+			finished(null);
+			return false;
+		}
+		startedAt = Instant.now();
+		status = Status.RUNNING;
+		return true;
+	}
+
+	synchronized void finished(Throwable failure) {
+		finishedAt = Instant.now();
+		if (cancelled) {
+			status = Status.CANCELLED;
+		} else if (failure != null) {
+			error = failure.toString();
+			status = Status.FAILED;
+		} else {
+			status = Status.COMPLETED;
+		}
+	}
+
+	/**
+	 * Queued jobs never start; running jobs stop after the current document and still write their splits.
+	 */
+	synchronized void cancel() {
+		cancelled = true;
+		// If the task was already picked up, start() sees the flag and finishes the job instead
+		if (status == Status.QUEUED && future != null && future.cancel(false)) {
+			finished(null);
+		}
+	}
+
+	public Map<String, Object> toMap() {
+		Map<String, Object> view = new LinkedHashMap<>();
+		view.put("id", id);
+		view.put("status", status.name());
+		view.put("size", size);
+		view.put("completed_documents", completedDocuments.get());
+		view.put("output_path", outputPath);
+		if (documentTypeMix != null) {
+			view.put("document_type_mix", documentTypeMix);
+		}
+		view.put("submitted_at", submittedAt.toString());
+		if (startedAt != null) view.put("started_at", startedAt.toString());
+		if (finishedAt != null) view.put("finished_at", finishedAt.toString());
+		if (error != null) view.put("error", error);
+		return view;
+	}
+}
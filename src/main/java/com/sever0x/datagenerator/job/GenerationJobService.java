@@ -0,0 +1,125 @@
+package com.sever0x.datagenerator.job;
+
+import com.sever0x.datagenerator.service.DatasetGenerationService;
+import com.sever0x.datagenerator.service.DocumentFileService;
+import com.sever0x.datagenerator.types.DocumentType;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Queues generation jobs and runs them on one shared executor. Jobs start in submission order, at most
+ * {@code dataset.service.max-concurrent-jobs} at a time; running jobs share the process-wide API rate limiter,
+ * which hands out request slots first come, first served, so concurrent jobs get an even share of the quota.
+ */
+@Slf4j
+@Service
+public class GenerationJobService {
+
+	@Value("${dataset.service.max-concurrent-jobs:2}")
+	private int maxConcurrentJobs;
+
+	private final DatasetGenerationService generationService;
+	private final DocumentFileService fileService;
+	private final Map<String, GenerationJob> jobs = new ConcurrentHashMap<>();
+	private final AtomicInteger nextId = new AtomicInteger();
+
+	private ExecutorService executor;
+
+	public GenerationJobService(DatasetGenerationService generationService, DocumentFileService fileService) {
+		this.generationService = generationService;
+		this.fileService = fileService;
+	}
+
+	public synchronized GenerationJob submit(int size, String outputPath, Map<DocumentType, Double> documentTypeMix) {
+		if (size <= 0) {
+			throw new IllegalArgumentException("Job size must be positive");
+		}
+		if (outputPath == null || outputPath.isBlank()) {
+			throw new IllegalArgumentException("Job output path is required");
+		}
+		for (GenerationJob job : jobs.values()) {
+			if (job.getOutputPath().equals(outputPath) && isActive(job)) {
+				throw new IllegalArgumentException("Another job is already writing to " + outputPath);
+			}
+		}
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(maxConcurrentJobs, runnable -> {
+				Thread thread = new Thread(runnable, "generation-job");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+
+		GenerationJob job = new GenerationJob(String.valueOf(nextId.incrementAndGet()), size, outputPath, documentTypeMix);
+		jobs.put(job.getId(), job);
+		job.setFuture(executor.submit(() -> run(job)));
+		log.info("Queued job {}: {} documents into {}", job.getId(), size, outputPath);
+		return job;
+	}
+
+	public List<GenerationJob> list() {
+		List<GenerationJob> all = new ArrayList<>(jobs.values());
+		all.sort((a, b) -> Integer.compare(Integer.parseInt(a.getId()), Integer.parseInt(b.getId())));
+		return all;
+	}
+
+	public GenerationJob get(String id) {
+		return jobs.get(id);
+	}
+
+	public GenerationJob cancel(String id) {
+		GenerationJob job = jobs.get(id);
+		if (job != null && isActive(job)) {
+			job.cancel();
+			log.info("Cancelling job {}", id);
+		}
+		return job;
+	}
+
+	private void run(GenerationJob job) {
+		if (!job.start()) {
+			log.info("Job {} cancelled before it started", job.getId());
+			return;
+		}
+
+		JobScope.bind(job);
+		Throwable failure = null;
+		try {
+			// Job-scoped proxies resolve to this job's own instances from here on
+			fileService.setBasePath(job.getOutputPath());
+			generationService.setDatasetSize(job.getSize());
+			generationService.setDocumentTypeMix(job.getDocumentTypeMix());
+			generationService.generateFullDataset();
+		} catch (Throwable e) {
+			failure = e;
+			log.error("Job {} failed", job.getId(), e);
+		} finally {
+			JobScope.unbind();
+			JobScope.destroy(job);
+			job.finished(failure);
+			log.info("Job {} {} with {} documents", job.getId(), job.getStatus(), job.getCompletedDocuments());
+		}
+	}
+
+	private static boolean isActive(GenerationJob job) {
+		return job.getStatus() == GenerationJob.Status.QUEUED || job.getStatus() == GenerationJob.Status.RUNNING;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (executor != null) {
+			jobs.values().forEach(GenerationJob::cancel);
+			executor.shutdown();
+		}
+	}
+}
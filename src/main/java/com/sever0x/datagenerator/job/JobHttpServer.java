@@ -0,0 +1,132 @@
+package com.sever0x.datagenerator.job;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sever0x.datagenerator.types.DocumentType;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local JSON API of the job service, bound to the loopback interface:
+ * <pre>
+ * POST   /jobs        {"size": 500, "output": "./dataset-a", "types": {"CLAIM_REPORT": 2, "CANCELLATION": 1}}
+ * GET    /jobs        all jobs
+ * GET    /jobs/{id}   status and progress of one job
+ * DELETE /jobs/{id}   cancel a queued or running job
+ * </pre>
+ */
+@Slf4j
+@Component
+public class JobHttpServer {
+
+	private final GenerationJobService jobService;
+	private final ObjectMapper mapper;
+
+	private HttpServer server;
+	private ExecutorService handlers;
+
+	public JobHttpServer(GenerationJobService jobService, ObjectMapper mapper) {
+		this.jobService = jobService;
+		this.mapper = mapper;
+	}
+
+	public synchronized void start(int port) throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+		server.createContext("/jobs", this::handle);
+		handlers = Executors.newFixedThreadPool(2);
+		server.setExecutor(handlers);
+		server.start();
+		log.info("Accepting generation jobs on http://127.0.0.1:{}/jobs", server.getAddress().getPort());
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try (exchange) {
+			String path = exchange.getRequestURI().getPath();
+			String id = path.length() > "/jobs/".length() ? path.substring("/jobs/".length()) : null;
+
+			try {
+				switch (exchange.getRequestMethod()) {
+					case "POST" -> {
+						if (id != null) {
+							send(exchange, 404, Map.of("error", "Not found"));
+							return;
+						}
+						send(exchange, 202, submit(mapper.readTree(exchange.getRequestBody())).toMap());
+					}
+					case "GET" -> {
+						if (id == null) {
+							send(exchange, 200, jobService.list().stream().map(GenerationJob::toMap).toList());
+						} else {
+							sendJob(exchange, jobService.get(id));
+						}
+					}
+					case "DELETE" -> sendJob(exchange, id != null ? jobService.cancel(id) : null);
+					default -> send(exchange, 405, Map.of("error", "Method not allowed"));
+				}
+			} catch (IllegalArgumentException e) {
+				send(exchange, 400, Map.of("error", e.getMessage()));
+			} catch (JsonProcessingException e) {
+				send(exchange, 400, Map.of("error", "Malformed JSON body: " + e.getOriginalMessage()));
+			}
+		} catch (Exception e) {
+			log.warn("Job API request failed", e);
+		}
+	}
+
+	private GenerationJob submit(JsonNode request) {
+		int size = request.path("size").asInt(0);
+		String output = request.path("output").asText(null);
+
+		Map<DocumentType, Double> mix = null;
+		JsonNode types = request.path("types");
+		if (types.isObject()) {
+			mix = new EnumMap<>(DocumentType.class);
+			for (Map.Entry<String, JsonNode> entry : types.properties()) {
+				double weight = entry.getValue().asDouble();
+				if (weight < 0) {
+					throw new IllegalArgumentException("Negative weight for " + entry.getKey());
+				}
+				mix.put(DocumentType.valueOf(entry.getKey().toUpperCase()), weight);
+			}
+		}
+		return jobService.submit(size, output, mix);
+	}
+
+	private void sendJob(HttpExchange exchange, GenerationJob job) throws IOException {
+		if (job == null) {
+			send(exchange, 404, Map.of("error", "Unknown job"));
+		} else {
+			send(exchange, 200, job.toMap());
+		}
+	}
+
+	private void send(HttpExchange exchange, int status, Object body) throws IOException {
+		byte[] bytes = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(body).getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	@PreDestroy
+	public synchronized void stop() {
+		if (server != null) {
+			server.stop(0);
+			handlers.shutdown();
+		}
+	}
+}
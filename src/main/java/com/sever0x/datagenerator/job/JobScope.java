@@ -0,0 +1,99 @@
+package com.sever0x.datagenerator.job;
+
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.config.Scope;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spring scope backing {@link JobScoped}: beans live in the {@link GenerationJob} bound to the current thread,
+ * or in a process-wide default bucket when no job is bound (command-line runs and tests).
+ */
+public class JobScope implements Scope {
+
+	public static final String NAME = "job";
+
+	private static final ThreadLocal<GenerationJob> CURRENT = new ThreadLocal<>();
+
+	private final Map<String, Object> defaultBeans = new HashMap<>();
+
+	public static void bind(GenerationJob job) {
+		CURRENT.set(job);
+	}
+
+	public static void unbind() {
+		CURRENT.remove();
+	}
+
+	/**
+	 * Runs the destruction callbacks of the beans the job created, once it has finished.
+	 */
+	public static void destroy(GenerationJob job) {
+		List<Runnable> callbacks;
+		synchronized (job.destructionCallbacks) {
+			callbacks = new ArrayList<>(job.destructionCallbacks);
+			job.destructionCallbacks.clear();
+		}
+		synchronized (job.beans) {
+			job.beans.clear();
+		}
+		callbacks.forEach(Runnable::run);
+	}
+
+	public static GenerationJob currentJob() {
+		return CURRENT.get();
+	}
+
+	public static boolean isCancelled() {
+		GenerationJob job = CURRENT.get();
+		return job != null && job.isCancelled();
+	}
+
+	@Override
+	public Object get(String name, ObjectFactory<?> objectFactory) {
+		GenerationJob job = CURRENT.get();
+		Map<String, Object> beans = job != null ? job.beans : defaultBeans;
+		synchronized (beans) {
+			Object bean = beans.get(name);
+			if (bean == null) {
+				bean = objectFactory.getObject();
+				beans.put(name, bean);
+			}
+			return bean;
+		}
+	}
+
+	@Override
+	public Object remove(String name) {
+		GenerationJob job = CURRENT.get();
+		Map<String, Object> beans = job != null ? job.beans : defaultBeans;
+		synchronized (beans) {
+			return beans.remove(name);
+		}
+	}
+
+	@Override
+	public void registerDestructionCallback(String name, Runnable callback) {
+		GenerationJob job = CURRENT.get();
+		if (job != null) {
+			synchronized (job.destructionCallbacks) {
+				job.destructionCallbacks.add(callback);
+			}
+		}
+		// Default-bucket beans live as long as the context
+	}
+
+	@Override
+	public Object resolveContextualObject(String key) {
+		return null;
+	}
+
+	@Override
+	public String getConversationId() {
+		GenerationJob job = CURRENT.get();
+		return job != null ? job.getId() : null;
+	}
+}
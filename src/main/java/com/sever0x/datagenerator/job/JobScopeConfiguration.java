@@ -0,0 +1,16 @@
+package com.sever0x.datagenerator.job;
+
+import org.springframework.beans.factory.config.CustomScopeConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JobScopeConfiguration {
+
+	@Bean
+	public static CustomScopeConfigurer jobScopeConfigurer() {
+		CustomScopeConfigurer configurer = new CustomScopeConfigurer();
+		configurer.addScope(JobScope.NAME, new JobScope());
+		return configurer;
+	}
+}
@@ -0,0 +1,21 @@
+package com.sever0x.datagenerator.job;
+
+import org.springframework.context.annotation.Scope;
+import org.springframework.context.annotation.ScopedProxyMode;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a bean that holds per-run state. Each {@link GenerationJob} gets its own instance, reached through a
+ * proxy; outside a job all callers share one instance, as with a plain singleton.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Scope(value = JobScope.NAME, proxyMode = ScopedProxyMode.TARGET_CLASS)
+public @interface JobScoped {
+}
@@ -0,0 +1,67 @@
+package com.sever0x.datagenerator.pipeline;
+
+import com.sever0x.datagenerator.jfr.PipelineQueueEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.FlightRecorder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Queue depth of every running pipeline stage, summed per stage name across concurrent jobs. Published as the
+ * periodic {@code com.sever0x.datagenerator.PipelineQueue} JFR event.
+ */
+@Component
+public class PipelineMetrics {
+
+	private final Map<String, List<PipelineStage<?>>> stages = new ConcurrentHashMap<>();
+	private final Runnable periodicEvent = this::emitEvents;
+
+	@PostConstruct
+	public void init() {
+		FlightRecorder.addPeriodicEvent(PipelineQueueEvent.class, periodicEvent);
+	}
+
+	public void register(PipelineStage<?> stage) {
+		stages.computeIfAbsent(stage.getName(), name -> new CopyOnWriteArrayList<>()).add(stage);
+	}
+
+	public void unregister(PipelineStage<?> stage) {
+		List<PipelineStage<?>> running = stages.get(stage.getName());
+		if (running != null) {
+			running.remove(stage);
+		}
+	}
+
+	public int depth(String name) {
+		return stages.getOrDefault(name, List.of()).stream().mapToInt(PipelineStage::getDepth).sum();
+	}
+
+	private void emitEvents() {
+		stages.forEach((name, running) -> {
+			if (running.isEmpty()) return;
+			int depth = 0;
+			int capacity = 0;
+			int busy = 0;
+			int workers = 0;
+			long processed = 0;
+			for (PipelineStage<?> stage : running) {
+				depth += stage.getDepth();
+				capacity += stage.getCapacity();
+				busy += stage.getBusy();
+				workers += stage.getWorkers();
+				processed += stage.getProcessed();
+			}
+			PipelineQueueEvent.emit(name, depth, capacity, busy, workers, processed);
+		});
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		FlightRecorder.removePeriodicEvent(periodicEvent);
+	}
+}
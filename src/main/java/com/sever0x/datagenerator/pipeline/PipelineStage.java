@@ -0,0 +1,194 @@
+package com.sever0x.datagenerator.pipeline;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One stage of the generation pipeline: a bounded input queue drained by a fixed number of workers. {@link #put}
+ * blocks while the queue is full, so a slow stage holds back the stages feeding it instead of buffering without
+ * bound. Failures of single items are logged and do not stop the workers; an {@link Error} aborts the stage and
+ * runs its abort listener, so the rest of the pipeline can be aborted with it instead of waiting on a stage that
+ * no longer drains.
+ * <p>
+ * Workers are virtual threads. CPU-bound stages hand each item to one pool of platform threads shared by every
+ * stage in the process, so concurrent jobs do not each add a thread per core.
+ */
+@Slf4j
+public class PipelineStage<T> {
+
+	// Marks the end of the input, one per worker
+	private static final Object END = new Object();
+
+	private static final int CORES = Runtime.getRuntime().availableProcessors();
+	private static final ExecutorService CPU_POOL = Executors.newFixedThreadPool(CORES,
+			Thread.ofPlatform().name("pipeline-cpu-", 0).daemon().factory());
+
+	@Getter
+	private final String name;
+	@Getter
+	private final int workers;
+	private final BlockingQueue<Object> queue;
+	private final Handler<T> handler;
+	private final ExecutorService executor;
+	private final AtomicInteger busy = new AtomicInteger();
+	private final AtomicLong processed = new AtomicLong();
+	private volatile boolean aborted;
+	private volatile Runnable abortListener = () -> { };
+
+	@FunctionalInterface
+	public interface Handler<T> {
+		void handle(T item) throws InterruptedException;
+	}
+
+	private PipelineStage(String name, int capacity, int workers, ThreadFactory threads, Handler<T> handler) {
+		this.name = name;
+		this.workers = Math.max(1, workers);
+		this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+		this.handler = handler;
+		this.executor = Executors.newFixedThreadPool(this.workers, threads);
+		for (int w = 0; w < this.workers; w++) {
+			executor.execute(this::work);
+		}
+	}
+
+	/**
+	 * Stage for blocking work such as API calls and file writes, with one virtual thread per worker.
+	 */
+	public static <T> PipelineStage<T> io(String name, int capacity, int workers, Handler<T> handler) {
+		return new PipelineStage<>(name, capacity, workers, Thread.ofVirtual().name(name + "-", 0).factory(), handler);
+	}
+
+	/**
+	 * Stage for CPU-bound work, run on the shared platform-thread pool; {@code workers} caps the items of this
+	 * stage in progress at once, {@code workers <= 0} uses one per available core.
+	 */
+	public static <T> PipelineStage<T> cpu(String name, int capacity, int workers, Handler<T> handler) {
+		int threads = workers > 0 ? workers : CORES;
+		return new PipelineStage<>(name, capacity, threads, Thread.ofVirtual().name(name + "-", 0).factory(),
+				item -> onCpuPool(handler, item));
+	}
+
+	private static <T> void onCpuPool(Handler<T> handler, T item) throws InterruptedException {
+		Future<?> task = CPU_POOL.submit(() -> {
+			handler.handle(item);
+			return null;
+		});
+		try {
+			task.get();
+		} catch (InterruptedException e) {
+			task.cancel(true);
+			throw e;
+		} catch (ExecutionException e) {
+			switch (e.getCause()) {
+				case RuntimeException runtime -> throw runtime;
+				case Error error -> throw error;
+				case InterruptedException interrupted -> throw interrupted;
+				default -> throw new IllegalStateException(e.getCause());
+			}
+		}
+	}
+
+	/**
+	 * Queues an item, blocking while the queue is full. Items put into an aborted stage are dropped.
+	 */
+	public void put(T item) throws InterruptedException {
+		enqueue(item);
+	}
+
+	public boolean isAborted() {
+		return aborted;
+	}
+
+	/**
+	 * Runs once when the stage is aborted, on the thread that aborts it.
+	 */
+	public void onAbort(Runnable listener) {
+		this.abortListener = listener;
+	}
+
+	public int getDepth() {
+		return queue.size();
+	}
+
+	public int getCapacity() {
+		return queue.size() + queue.remainingCapacity();
+	}
+
+	public int getBusy() {
+		return busy.get();
+	}
+
+	public long getProcessed() {
+		return processed.get();
+	}
+
+	/**
+	 * Lets the workers finish everything queued so far and waits for them.
+	 */
+	public void finish() throws InterruptedException {
+		for (int w = 0; w < workers; w++) {
+			enqueue(END);
+		}
+		executor.shutdown();
+		while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+			log.info("Waiting for stage {}: {} queued, {} busy", name, getDepth(), getBusy());
+		}
+	}
+
+	/**
+	 * Drops the queued items, interrupts the workers and runs the abort listener. Later calls do nothing.
+	 */
+	public void abort() {
+		synchronized (this) {
+			if (aborted) return;
+			aborted = true;
+		}
+		queue.clear();
+		executor.shutdownNow();
+		abortListener.run();
+	}
+
+	private void enqueue(Object item) throws InterruptedException {
+		while (!aborted) {
+			if (queue.offer(item, 100, TimeUnit.MILLISECONDS)) return;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void work() {
+		try {
+			while (true) {
+				Object item = queue.take();
+				if (item == END) return;
+
+				busy.incrementAndGet();
+				try {
+					handler.handle((T) item);
+				} catch (RuntimeException e) {
+					log.error("Stage {} failed on an item", name, e);
+				} catch (Throwable e) {
+					// Not recoverable per item, and a worker that stops would leave its END unconsumed
+					log.error("Stage {} aborted by an error", name, e);
+					abort();
+					return;
+				} finally {
+					busy.decrementAndGet();
+					processed.incrementAndGet();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
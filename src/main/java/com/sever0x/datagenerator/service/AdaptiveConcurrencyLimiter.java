@@ -0,0 +1,232 @@
+package com.sever0x.datagenerator.service;
+
+import com.sever0x.datagenerator.jfr.ConcurrencyLimitEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.FlightRecorder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD limit on concurrent OpenAI calls, shared by every job in the process. The limit grows by one call per
+ * round trip while it is fully used and latency stays near its baseline, and is cut multiplicatively when the
+ * API answers 429 (by half) or the smoothed latency of a call kind exceeds {@code latency-tolerance} times its
+ * baseline (by a tenth). Cuts are spaced by one round trip, so a burst of slow calls counts as one signal.
+ * <p>
+ * The current limit is published as the periodic {@code com.sever0x.datagenerator.ConcurrencyLimit} JFR event.
+ */
+@Slf4j
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+	private static final double THROTTLE_DECREASE = 0.5;
+	private static final double LATENCY_DECREASE = 0.9;
+	private static final double LATENCY_SMOOTHING = 0.2;
+	// Lets the baseline follow a slower API instead of sticking to an old minimum
+	private static final double BASELINE_DRIFT = 1.01;
+	private static final int WARMUP_CALLS = 5;
+
+	@Value("${dataset.concurrency.max-in-flight:8}")
+	private int maxLimit;
+
+	@Value("${dataset.concurrency.initial:2}")
+	private int initialLimit;
+
+	@Value("${dataset.concurrency.latency-tolerance:2.0}")
+	private double latencyTolerance;
+
+	private final ObjectProvider<RetryTemplate> retryTemplates;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition slotFreed = lock.newCondition();
+	private final Map<String, LatencyStats> latencyByKind = new HashMap<>();
+	private final Runnable periodicEvent = this::emitEvent;
+	// 429s already counted by the retry listener, so the caller does not count them again when retries run out
+	private final Set<Throwable> countedThrottles = Collections.newSetFromMap(Collections.synchronizedMap(new WeakHashMap<>()));
+
+	private double limit;
+	private int inFlight;
+	private long throttled;
+	private long lastDecreaseNanos;
+
+	private static final class LatencyStats {
+		long calls;
+		double smoothedNanos;
+		double baselineNanos;
+	}
+
+	public AdaptiveConcurrencyLimiter(ObjectProvider<RetryTemplate> retryTemplates) {
+		this.retryTemplates = retryTemplates;
+	}
+
+	@PostConstruct
+	public void init() {
+		maxLimit = Math.max(1, maxLimit);
+		limit = Math.max(1, Math.min(initialLimit, maxLimit));
+		// nanoTime has an arbitrary origin, so the cooldown is measured from startup
+		lastDecreaseNanos = System.nanoTime();
+
+		// Retried 429s never reach the caller, so listen on the retry template that wraps the API calls
+		retryTemplates.ifAvailable(template -> template.registerListener(new RetryListener() {
+			@Override
+			public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+				if (isThrottle(throwable)) {
+					countedThrottles.add(throwable);
+					onThrottled();
+				}
+			}
+		}));
+		FlightRecorder.addPeriodicEvent(ConcurrencyLimitEvent.class, periodicEvent);
+	}
+
+	public boolean isAdaptive() {
+		return maxLimit > 1;
+	}
+
+	public int getMaxLimit() {
+		return maxLimit;
+	}
+
+	public int getLimit() {
+		lock.lock();
+		try {
+			return (int) limit;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void acquire() throws InterruptedException {
+		lock.lockInterruptibly();
+		try {
+			while (inFlight >= (int) limit) {
+				slotFreed.await();
+			}
+			inFlight++;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the slot of a finished call and adjusts the limit from its latency. Failed calls carry no latency
+	 * signal, except calls that timed out: their latency is the clearest sign of an overloaded API.
+	 */
+	public void release(String callKind, long latencyNanos, boolean success, boolean timedOut) {
+		lock.lock();
+		try {
+			boolean saturated = inFlight >= (int) limit;
+			inFlight--;
+
+			if (success || timedOut) {
+				LatencyStats stats = latencyByKind.computeIfAbsent(callKind, k -> new LatencyStats());
+				if (stats.calls++ == 0) {
+					stats.smoothedNanos = latencyNanos;
+					stats.baselineNanos = latencyNanos;
+				} else {
+					stats.smoothedNanos += LATENCY_SMOOTHING * (latencyNanos - stats.smoothedNanos);
+					stats.baselineNanos = Math.min(stats.smoothedNanos, stats.baselineNanos * BASELINE_DRIFT);
+				}
+
+				if (stats.calls >= WARMUP_CALLS && stats.smoothedNanos > stats.baselineNanos * latencyTolerance) {
+					decrease(LATENCY_DECREASE, (long) stats.smoothedNanos, "latency " + TimeUnit.NANOSECONDS.toMillis((long) stats.smoothedNanos)
+							+ "ms vs baseline " + TimeUnit.NANOSECONDS.toMillis((long) stats.baselineNanos) + "ms for " + callKind);
+				} else if (success && saturated && limit < maxLimit) {
+					// Additive increase: about one more slot per round trip at the current limit
+					limit = Math.min(maxLimit, limit + 1.0 / limit);
+				}
+			}
+			slotFreed.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void onThrottled() {
+		lock.lock();
+		try {
+			throttled++;
+			decrease(THROTTLE_DECREASE, roundTripNanos(), "429 from the API");
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Counts a 429 that ended a call, unless the retry listener already counted it on its last attempt.
+	 */
+	public void onCallFailed(Throwable failure) {
+		for (Throwable t = failure; t != null; t = t.getCause()) {
+			if (countedThrottles.remove(t)) return;
+		}
+		if (isThrottle(failure)) {
+			onThrottled();
+		}
+	}
+
+	public static boolean isThrottle(Throwable throwable) {
+		for (Throwable t = throwable; t != null; t = t.getCause()) {
+			String message = t.getMessage();
+			if (message != null && message.startsWith("HTTP 429")) return true;
+			if (t instanceof HttpClientErrorException.TooManyRequests) return true;
+		}
+		return false;
+	}
+
+	private void decrease(double factor, long cooldownNanos, String reason) {
+		long now = System.nanoTime();
+		if (now - lastDecreaseNanos < cooldownNanos) return;
+
+		lastDecreaseNanos = now;
+		double previous = limit;
+		limit = Math.max(1, limit * factor);
+		if ((int) previous != (int) limit) {
+			log.debug("Concurrency limit {} -> {} ({})", (int) previous, (int) limit, reason);
+		}
+	}
+
+	private long roundTripNanos() {
+		double max = 0;
+		for (LatencyStats stats : latencyByKind.values()) {
+			max = Math.max(max, stats.smoothedNanos);
+		}
+		return (long) max;
+	}
+
+	private void emitEvent() {
+		lock.lock();
+		try {
+			double latency = 0;
+			double baseline = 0;
+			for (LatencyStats stats : latencyByKind.values()) {
+				latency = Math.max(latency, stats.smoothedNanos);
+				baseline = Math.max(baseline, stats.baselineNanos);
+			}
+			ConcurrencyLimitEvent.emit((int) limit, inFlight, TimeUnit.NANOSECONDS.toMillis((long) latency),
+					TimeUnit.NANOSECONDS.toMillis((long) baseline), throttled);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		FlightRecorder.removePeriodicEvent(periodicEvent);
+	}
+}
@@ -0,0 +1,40 @@
+package com.sever0x.datagenerator.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide request limiter for the OpenAI API. Every call reserves the next free slot on a fixed grid of
+ * {@code 60s / requests-per-minute}, so callers are served in arrival order and concurrent jobs split the quota
+ * evenly. A limit of {@code 0} disables it.
+ */
+@Component
+public class ApiRateLimiter {
+
+	@Value("${dataset.rate-limit.requests-per-minute:0}")
+	private int requestsPerMinute;
+
+	private long nextSlotNanos;
+
+	public boolean isEnabled() {
+		return requestsPerMinute > 0;
+	}
+
+	public void acquire() throws InterruptedException {
+		if (!isEnabled()) return;
+
+		long interval = TimeUnit.MINUTES.toNanos(1) / requestsPerMinute;
+		long wait;
+		synchronized (this) {
+			long now = System.nanoTime();
+			long slot = Math.max(now, nextSlotNanos);
+			nextSlotNanos = slot + interval;
+			wait = slot - now;
+		}
+		if (wait > 0) {
+			TimeUnit.NANOSECONDS.sleep(wait);
+		}
+	}
+}
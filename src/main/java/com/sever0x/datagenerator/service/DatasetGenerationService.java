@@ -1,92 +1,425 @@
 package com.sever0x.datagenerator.service;
 
+import com.sever0x.datagenerator.coverage.CoverageScheduler;
+import com.sever0x.datagenerator.data.AnnotatedDocument;
+import com.sever0x.datagenerator.data.DatasetManifest;
 import com.sever0x.datagenerator.data.DocumentData;
+import com.sever0x.datagenerator.data.GeneratedDocument;
+import com.sever0x.datagenerator.data.GenerationResult;
 import com.sever0x.datagenerator.data.InsuranceEntities;
+import com.sever0x.datagenerator.jfr.DocumentContext;
+import com.sever0x.datagenerator.job.GenerationJob;
+import com.sever0x.datagenerator.job.JobScope;
+import com.sever0x.datagenerator.job.JobScoped;
+import com.sever0x.datagenerator.pipeline.PipelineMetrics;
+import com.sever0x.datagenerator.pipeline.PipelineStage;
+import com.sever0x.datagenerator.statistics.DatasetStatisticsCollector;
 import com.sever0x.datagenerator.types.DocumentType;
+import com.sever0x.datagenerator.types.GenerationVariant;
 import com.sever0x.datagenerator.types.InsuranceCompanyType;
 import com.sever0x.datagenerator.types.WritingStyle;
+import com.sever0x.datagenerator.validation.DocumentQualityGate;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Service
+@JobScoped
 public class DatasetGenerationService {
 
 	@Setter
 	@Value("${dataset.size}")
 	private int datasetSize;
 
+	@Value("${dataset.request-delay-ms:200}")
+	private long requestDelayMs;
+
+	@Value("${dataset.extraction.batch-size:1}")
+	private int extractionBatchSize;
+
+	@Value("${dataset.extraction.max-batch-chars:24000}")
+	private int maxBatchChars;
+
+	@Value("${dataset.quality.max-attempts:3}")
+	private int maxAttempts;
+
+	@Value("${dataset.generation.choices-per-prompt:1}")
+	private int choicesPerPrompt;
+
+	@Value("${dataset.pipeline.queue-capacity:64}")
+	private int queueCapacity;
+
+	@Value("${dataset.pipeline.extraction-workers:4}")
+	private int extractionWorkers;
+
+	@Value("${dataset.pipeline.labeling-workers:0}")
+	private int labelingWorkers;
+
+	@Value("${dataset.pipeline.writing-workers:4}")
+	private int writingWorkers;
+
+	// Relative weights per document type; null samples all types evenly
+	@Setter
+	private Map<DocumentType, Double> documentTypeMix;
+
+	// Add datasetSize documents to the dataset in the output path instead of replacing it
+	@Setter
+	private boolean append;
+
 	private final InsuranceDocumentGenerationService documentService;
 	private final DocumentFileService fileService;
+	private final DocumentQualityGate qualityGate;
+	private final DatasetStatisticsCollector statisticsCollector;
+	private final CoverageScheduler coverageScheduler;
+	private final ApiRateLimiter rateLimiter;
+	private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+	private final PipelineMetrics pipelineMetrics;
+	private final OpenAiCallMetrics callMetrics;
 
-	public DatasetGenerationService(InsuranceDocumentGenerationService documentService, DocumentFileService fileService) {
+	public DatasetGenerationService(InsuranceDocumentGenerationService documentService, DocumentFileService fileService,
+			DocumentQualityGate qualityGate, DatasetStatisticsCollector statisticsCollector, CoverageScheduler coverageScheduler,
+			ApiRateLimiter rateLimiter, AdaptiveConcurrencyLimiter concurrencyLimiter, PipelineMetrics pipelineMetrics,
+			OpenAiCallMetrics callMetrics) {
 		this.documentService = documentService;
 		this.fileService = fileService;
+		this.qualityGate = qualityGate;
+		this.statisticsCollector = statisticsCollector;
+		this.coverageScheduler = coverageScheduler;
+		this.rateLimiter = rateLimiter;
+		this.concurrencyLimiter = concurrencyLimiter;
+		this.pipelineMetrics = pipelineMetrics;
+		this.callMetrics = callMetrics;
 	}
 
 	public void generateFullDataset() {
-		log.info("Starting generation of {} insurance documents", datasetSize);
+		DatasetManifest manifest = append ? fileService.loadManifest() : null;
+		int firstId = manifest != null ? manifest.getMaxDocumentId() + 1 : 1;
+		if (manifest != null) {
+			log.info("Appending {} insurance documents to {}, starting at ID {}", datasetSize, fileService.getDatasetPath(), firstId);
+		} else {
+			log.info("Starting generation of {} insurance documents", datasetSize);
+		}
 
-		List<DocumentData> allDocuments = new ArrayList<>();
+		List<DocumentData> completed = Collections.synchronizedList(new ArrayList<>());
+		PendingBatch pending = new PendingBatch();
+		statisticsCollector.start(Paths.get(fileService.getDatasetPath(), "statistics"));
+		coverageScheduler.start();
 
-		for (int i = 1; i <= datasetSize; i++) {
-			try {
-				DocumentType docType = randomDocumentType();
-				String document = generateVariedDocument(docType);
-				InsuranceEntities entities = documentService.extractEntities(document);
+		// Stages hand documents on through bounded queues, so a slow stage holds back the one before it. At most
+		// as many prompts are queued or running as the adaptive limiter may ever allow; with a limit of one the
+		// prompts run one after the other as before
+		GenerationJob job = JobScope.currentJob();
+		int window = concurrencyLimiter.getMaxLimit();
+		Semaphore promptSlots = new Semaphore(window);
+		AtomicInteger documentsLeft = new AtomicInteger(datasetSize);
+		AtomicInteger nextId = new AtomicInteger(firstId);
+		int prompts = 0;
 
-				String rawFilePath = fileService.saveRawDocument(document, i, docType);
-				String conllFilePath = fileService.saveAnnotatedDocument(document, entities, i);
-				fileService.saveByType(document, docType, i);
+		PipelineStage<PipelineDocument> writing = PipelineStage.io("writing", queueCapacity, writingWorkers,
+				inJob(job, document -> saveDocument(document, completed)));
+		PipelineStage<PipelineDocument> labeling = PipelineStage.cpu("labeling", queueCapacity, labelingWorkers,
+				inJob(job, document -> labelDocument(document, writing)));
+		PipelineStage<List<GeneratedDocument>> extraction = PipelineStage.io("extraction", queueCapacity, extractionWorkers,
+				inJob(job, batch -> extractBatch(batch, labeling)));
+		PipelineStage<Prompt> generation = PipelineStage.io("generation", window, window,
+				inJob(job, prompt -> {
+					try {
+						generatePrompt(prompt, documentsLeft, nextId, pending, extraction);
+					} finally {
+						promptSlots.release();
+					}
+				}));
+		List<PipelineStage<?>> stages = List.of(generation, extraction, labeling, writing);
+		stages.forEach(pipelineMetrics::register);
+		for (PipelineStage<?> stage : stages) {
+			// A stage stopped by an error takes the others down with it; the extra permits wake the prompt loop
+			stage.onAbort(() -> {
+				stages.forEach(PipelineStage::abort);
+				promptSlots.release(window);
+			});
+		}
+
+		try {
+			// With coverage targets the dataset size only caps the run
+			while (!coverageScheduler.isComplete() && !JobScope.isCancelled() && !generation.isAborted()) {
+				promptSlots.acquire();
+				int choices = takeDocuments(documentsLeft, choicesPerPrompt);
+				if (choices == 0) {
+					// Wait for the prompts in flight; rejected candidates hand their documents back
+					promptSlots.release();
+					promptSlots.acquire(window);
+					promptSlots.release(window);
+					if (documentsLeft.get() == 0) break;
+					continue;
+				}
 
-				DocumentData docData = new DocumentData(i, document, Files.readString(Paths.get(conllFilePath)), entities, docType, rawFilePath);
-				allDocuments.add(docData);
+				DocumentType docType;
+				GenerationVariant variant;
+				if (coverageScheduler.isEnabled()) {
+					CoverageScheduler.Pick pick = coverageScheduler.next();
+					docType = pick.getDocumentType();
+					variant = pick.getVariant();
+				} else {
+					docType = randomDocumentType();
+					variant = randomVariant();
+				}
+				if (variant == GenerationVariant.PERSONALITY && choices > 1) {
+					// Personality prompts are randomized per request and return one candidate
+					documentsLeft.addAndGet(choices - 1);
+					choices = 1;
+				}
+				generation.put(new Prompt(docType, variant, ++prompts, choices));
+			}
 
-				if (i % 10 == 0) {
-					System.out.println("Generated " + i + "/" + datasetSize + " documents");
+			// Each stage drains into the next before that one is told to finish
+			generation.finish();
+			if (JobScope.isCancelled()) {
+				log.info("Job cancelled, writing splits for the documents completed so far");
+			} else {
+				List<GeneratedDocument> rest = pending.drain();
+				if (!rest.isEmpty()) {
+					extraction.put(rest);
 				}
+			}
+			extraction.finish();
+			labeling.finish();
+			writing.finish();
+			if (generation.isAborted()) {
+				log.error("Generation pipeline aborted, writing splits for the documents completed so far");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			stages.forEach(PipelineStage::abort);
+			log.warn("Generation interrupted, writing splits for the documents completed so far");
+		} finally {
+			stages.forEach(pipelineMetrics::unregister);
+		}
+
+		List<DocumentData> allDocuments;
+		synchronized (completed) {
+			allDocuments = new ArrayList<>(completed);
+		}
+		if (coverageScheduler.isEnabled()) {
+			log.info("Coverage after {} documents{}: {}", allDocuments.size(),
+					coverageScheduler.isComplete() ? " (all targets met)" : "", coverageScheduler.progress());
+		}
+		callMetrics.getSummary().forEach((call, summary) -> log.info("OpenAI {}: {}", call, summary));
+
+		if (manifest != null) {
+			fileService.appendTrainingSplits(allDocuments, qualityGate.getRejectionCounts(), manifest);
+		} else {
+			fileService.createTrainingSplits(allDocuments, qualityGate.getRejectionCounts());
+		}
+		statisticsCollector.finish();
+	}
+
+	/**
+	 * Runs a stage handler with the job's scope bound, since job-scoped beans resolve per thread.
+	 */
+	private static <T> PipelineStage.Handler<T> inJob(GenerationJob job, PipelineStage.Handler<T> handler) {
+		if (job == null) return handler;
+		return item -> {
+			JobScope.bind(job);
+			try {
+				handler.handle(item);
+			} finally {
+				JobScope.unbind();
+			}
+		};
+	}
+
+	/**
+	 * Generates one prompt's candidates and queues the accepted ones for extraction. IDs are only taken for
+	 * accepted candidates, so rejections leave no gaps in the numbering. Unused documents of the reservation go
+	 * back to {@code documentsLeft}; a prompt that is given up on still uses one.
+	 */
+	private void generatePrompt(Prompt prompt, AtomicInteger documentsLeft, AtomicInteger nextId, PendingBatch pending,
+			PipelineStage<List<GeneratedDocument>> extraction) throws InterruptedException {
+		if (JobScope.isCancelled()) return;
+
+		List<String> accepted = List.of();
+		// No document ID yet while generating
+		DocumentContext.begin(-1, prompt.documentType);
+		DocumentContext.setVariant(prompt.variant);
+		try {
+			accepted = generateAcceptedDocuments(prompt.documentType, prompt.variant, prompt.number, prompt.choices);
+
+			pause();
+
+		} catch (InterruptedException e) {
+			throw e;
+		} catch (Exception e) {
+			log.error("Failed to generate prompt {}", prompt.number, e);
+		} finally {
+			DocumentContext.clear();
+		}
+		documentsLeft.addAndGet(prompt.choices - Math.max(1, accepted.size()));
+
+		// Every accepted candidate of the prompt becomes a document of its own, under consecutive IDs
+		int firstId = nextId.getAndAdd(accepted.size());
+		for (int c = 0; c < accepted.size(); c++) {
+			GeneratedDocument generated = new GeneratedDocument(firstId + c, prompt.documentType, prompt.variant, accepted.get(c));
+			for (List<GeneratedDocument> batch : pending.add(generated)) {
+				extraction.put(batch);
+			}
+		}
+	}
+
+	private static int takeDocuments(AtomicInteger documentsLeft, int wanted) {
+		while (true) {
+			int left = documentsLeft.get();
+			int taken = Math.min(left, wanted);
+			if (documentsLeft.compareAndSet(left, left - taken)) {
+				return taken;
+			}
+		}
+	}
 
-				Thread.sleep(200); // API rate limiting
+	/**
+	 * Extracts entities for a batch of documents, in one request when batching is enabled.
+	 */
+	private void extractBatch(List<GeneratedDocument> batch, PipelineStage<PipelineDocument> labeling) throws InterruptedException {
+		if (JobScope.isCancelled()) return;
 
-			} catch (Exception e) {
-				log.error("Failed to generate document {}", i, e);
+		List<InsuranceEntities> extracted;
+		try {
+			extracted = documentService.extractEntitiesBatch(batch.stream().map(GeneratedDocument::getContent).toList());
+		} catch (Exception e) {
+			log.error("Failed to extract entities for documents {}-{}", batch.get(0).getDocumentId(), batch.get(batch.size() - 1).getDocumentId(), e);
+			return;
+		}
+
+		for (int j = 0; j < batch.size(); j++) {
+			labeling.put(new PipelineDocument(batch.get(j), extracted.get(j)));
+		}
+	}
+
+	private void labelDocument(PipelineDocument document, PipelineStage<PipelineDocument> writing) throws InterruptedException {
+		GeneratedDocument generated = document.generated;
+		DocumentContext.begin(generated.getDocumentId(), generated.getDocumentType());
+		try {
+			document.annotated = fileService.annotate(generated.getContent(), document.entities);
+		} catch (Exception e) {
+			log.error("Failed to label document {}", generated.getDocumentId(), e);
+			return;
+		} finally {
+			DocumentContext.clear();
+		}
+		writing.put(document);
+	}
+
+	/**
+	 * Saves a labeled document with its sidecars and records it in the statistics and coverage.
+	 */
+	private void saveDocument(PipelineDocument document, List<DocumentData> completed) {
+		GeneratedDocument generated = document.generated;
+		int i = generated.getDocumentId();
+		DocumentType docType = generated.getDocumentType();
+		String content = generated.getContent();
+		InsuranceEntities entities = document.entities;
+		AnnotatedDocument annotated = document.annotated;
+
+		DocumentContext.begin(i, docType);
+		try {
+			String rawFilePath = fileService.saveRawDocument(content, i, docType);
+			fileService.saveEntities(entities, i);
+			fileService.saveAnnotatedDocument(annotated, i);
+			fileService.saveByType(content, docType, i);
+			statisticsCollector.recordDocument(docType, entities, annotated);
+			int[] labelCounts = annotated.labelCounts();
+			coverageScheduler.record(docType, generated.getVariant(), labelCounts);
+
+			DocumentData docData = new DocumentData(i, content, annotated, entities, docType, rawFilePath, labelCounts);
+			int done;
+			synchronized (completed) {
+				completed.add(docData);
+				done = completed.size();
 			}
+
+			GenerationJob job = JobScope.currentJob();
+			if (job != null) {
+				job.documentCompleted();
+			}
+
+			if (done % 10 == 0) {
+				System.out.println("Generated " + done + "/" + datasetSize + " documents");
+			}
+
+		} catch (Exception e) {
+			log.error("Failed to generate document {}", i, e);
+		} finally {
+			DocumentContext.clear();
+		}
+	}
+
+	/**
+	 * Generates until at least one candidate passes the quality gate, so rejected generations never reach
+	 * extraction. Fixed-prompt variants return up to {@code choices} candidates from a single request.
+	 */
+	private List<String> generateAcceptedDocuments(DocumentType docType, GenerationVariant variant, int promptNumber, int choices) throws InterruptedException {
+		for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+			List<String> accepted = new ArrayList<>(choices);
+			for (GenerationResult generation : generateVariedDocuments(docType, variant, choices)) {
+				String rejection = qualityGate.check(generation, docType, variant);
+				if (rejection == null) {
+					accepted.add(generation.getContent());
+				} else {
+					log.warn("Rejected candidate for prompt {} (attempt {}/{}): {}", promptNumber, attempt, maxAttempts, rejection);
+				}
+			}
+			if (!accepted.isEmpty()) {
+				return accepted;
+			}
+
+			pause();
 		}
 
-		fileService.createTrainingSplits(allDocuments);
-		fileService.exportForFlair();
+		log.error("Giving up on prompt {} after {} rejected generations", promptNumber, maxAttempts);
+		return List.of();
 	}
 
-	private String generateVariedDocument(DocumentType docType) {
+	private GenerationVariant randomVariant() {
 		// Add variety: 70% standard, 15% complex, 10% edge cases, 5% multilingual
 		double rand = Math.random();
 
 		if (rand < 0.15) {
-			// Generate complex documents with multiple contracts
-			return documentService.generateComplexDocument();
+			return GenerationVariant.COMPLEX;
 		} else if (rand < 0.25) {
-			// Generate edge case documents for challenging NER
-			return documentService.generateEdgeCaseDocument();
+			return GenerationVariant.EDGE_CASE;
 		} else if (rand < 0.30) {
-			// Generate documents with international elements
-			return documentService.generateMultiLanguageDocument();
+			return GenerationVariant.MULTILINGUAL;
 		} else if (rand < 0.60) {
-			// Generate with varied personality/style
-			return documentService.generateWithPersonality(docType, randomWritingStyle(), randomCompanyType());
+			return GenerationVariant.PERSONALITY;
 		} else {
-			// Standard generation
-			return generateDocumentByType(docType);
+			return GenerationVariant.STANDARD;
 		}
 	}
 
+	private List<GenerationResult> generateVariedDocuments(DocumentType docType, GenerationVariant variant, int choices) {
+		return switch (variant) {
+			// Complex documents with multiple contracts
+			case COMPLEX -> documentService.generateComplexDocument(choices);
+			// Edge case documents for challenging NER
+			case EDGE_CASE -> documentService.generateEdgeCaseDocument(choices);
+			// Documents with international elements
+			case MULTILINGUAL -> documentService.generateMultiLanguageDocument(choices);
+			// Varied personality/style; the prompt is randomized, so one candidate per request
+			case PERSONALITY -> List.of(documentService.generateWithPersonality(docType, randomWritingStyle(), randomCompanyType()));
+			case STANDARD -> generateDocumentByType(docType, choices);
+		};
+	}
+
 	private WritingStyle randomWritingStyle() {
 		WritingStyle[] styles = WritingStyle.values();
 		return styles[new Random().nextInt(styles.length)];
@@ -97,19 +430,101 @@ public class DatasetGenerationService {
 		return types[new Random().nextInt(types.length)];
 	}
 
-	private String generateDocumentByType(DocumentType docType) {
+	private List<GenerationResult> generateDocumentByType(DocumentType docType, int choices) {
 		return switch (docType) {
-			case POLICY_CONFIRMATION -> documentService.generatePolicyConfirmation();
-			case CLAIM_REPORT -> documentService.generateClaimReport();
-			case PREMIUM_ADJUSTMENT -> documentService.generatePremiumAdjustment();
-			case CANCELLATION -> documentService.generateCancellationLetter();
-			case PAYMENT_REMINDER -> documentService.generatePaymentReminder();
-			case INSURANCE_QUOTE -> documentService.generateInsuranceQuote();
+			case POLICY_CONFIRMATION -> documentService.generatePolicyConfirmation(choices);
+			case CLAIM_REPORT -> documentService.generateClaimReport(choices);
+			case PREMIUM_ADJUSTMENT -> documentService.generatePremiumAdjustment(choices);
+			case CANCELLATION -> documentService.generateCancellationLetter(choices);
+			case PAYMENT_REMINDER -> documentService.generatePaymentReminder(choices);
+			case INSURANCE_QUOTE -> documentService.generateInsuranceQuote(choices);
 		};
 	}
 
+	/**
+	 * Fixed delay between requests, unless the shared rate limiter or the adaptive concurrency limit already
+	 * paces them.
+	 */
+	private void pause() throws InterruptedException {
+		if (!rateLimiter.isEnabled() && !concurrencyLimiter.isAdaptive()) {
+			Thread.sleep(requestDelayMs); // API rate limiting
+		}
+	}
+
 	private DocumentType randomDocumentType() {
 		DocumentType[] types = DocumentType.values();
-		return types[new Random().nextInt(types.length)];
+		if (documentTypeMix == null || documentTypeMix.isEmpty()) {
+			return types[new Random().nextInt(types.length)];
+		}
+
+		double total = documentTypeMix.values().stream().mapToDouble(Double::doubleValue).sum();
+		double roll = Math.random() * total;
+		for (Map.Entry<DocumentType, Double> entry : documentTypeMix.entrySet()) {
+			roll -= entry.getValue();
+			if (roll < 0) return entry.getKey();
+		}
+		return documentTypeMix.keySet().iterator().next();
+	}
+
+	private static final class Prompt {
+		final DocumentType documentType;
+		final GenerationVariant variant;
+		// Sequence number for logs; document IDs are assigned on acceptance
+		final int number;
+		final int choices;
+
+		Prompt(DocumentType documentType, GenerationVariant variant, int number, int choices) {
+			this.documentType = documentType;
+			this.variant = variant;
+			this.number = number;
+			this.choices = choices;
+		}
+	}
+
+	/**
+	 * A document on its way from extraction through labeling to the writers.
+	 */
+	private static final class PipelineDocument {
+		final GeneratedDocument generated;
+		final InsuranceEntities entities;
+		AnnotatedDocument annotated;
+
+		PipelineDocument(GeneratedDocument generated, InsuranceEntities entities) {
+			this.generated = generated;
+			this.entities = entities;
+		}
+	}
+
+	/**
+	 * Documents waiting for extraction, shared by the prompt workers. Batches are cut at the configured size and
+	 * character budget and queued for extraction by the worker that filled them.
+	 */
+	private final class PendingBatch {
+		private final List<GeneratedDocument> documents = new ArrayList<>();
+		private int chars;
+
+		synchronized List<List<GeneratedDocument>> add(GeneratedDocument generated) {
+			List<List<GeneratedDocument>> ready = new ArrayList<>(2);
+			int length = generated.getContent().length();
+
+			// Keep each batch inside the character budget
+			if (!documents.isEmpty() && chars + length > maxBatchChars) {
+				ready.add(drain());
+			}
+			documents.add(generated);
+			chars += length;
+
+			if (documents.size() >= extractionBatchSize) {
+				ready.add(drain());
+			}
+			return ready;
+		}
+
+		synchronized List<GeneratedDocument> drain() {
+			List<GeneratedDocument> batch = new ArrayList<>(documents);
+			documents.clear();
+			chars = 0;
+			return batch;
+		}
 	}
 }
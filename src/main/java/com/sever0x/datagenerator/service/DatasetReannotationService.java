@@ -0,0 +1,212 @@
+package com.sever0x.datagenerator.service;
+
+import com.sever0x.datagenerator.data.AnnotatedDocument;
+import com.sever0x.datagenerator.data.DatasetManifest;
+import com.sever0x.datagenerator.data.DocumentData;
+import com.sever0x.datagenerator.data.InsuranceEntities;
+import com.sever0x.datagenerator.jfr.DocumentContext;
+import com.sever0x.datagenerator.statistics.DatasetStatisticsCollector;
+import com.sever0x.datagenerator.storage.StoredDocument;
+import com.sever0x.datagenerator.types.DocumentType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rebuilds annotated data, training splits and statistics of an existing dataset from its raw documents and
+ * entity sidecars, without calling the API. Every document stays in the split the manifest lists it in.
+ * <p>
+ * Splits are walked in manifest order in windows of documents: while one window is written to the exporters, the
+ * next is labeled on all cores, so only two windows of documents are held at any time however large the dataset.
+ */
+@Slf4j
+@Service
+public class DatasetReannotationService {
+
+	private static final int FILES_PER_TASK = 64;
+	private static final List<String> SPLITS = List.of("train", "dev", "test");
+
+	private final DocumentFileService fileService;
+	private final DatasetStatisticsCollector statisticsCollector;
+
+	public DatasetReannotationService(DocumentFileService fileService, DatasetStatisticsCollector statisticsCollector) {
+		this.fileService = fileService;
+		this.statisticsCollector = statisticsCollector;
+	}
+
+	public int reannotate(String datasetPath) {
+		fileService.setBasePath(datasetPath);
+		DatasetManifest manifest = fileService.readManifest();
+		if (manifest == null) {
+			log.warn("No manifest in {}, dividing the documents into new splits", datasetPath);
+			manifest = new DatasetManifest();
+		}
+
+		// Of the listing only the type of each stored document is kept, indexed by ID
+		DocumentType[] types;
+		try {
+			types = storedTypes(fileService.listRawDocuments());
+		} catch (Exception e) {
+			throw new RuntimeException("Failed to list raw documents in " + datasetPath, e);
+		}
+		addUnlisted(types, manifest);
+		log.info("Re-annotating {} documents in {}", Arrays.stream(types).filter(type -> type != null).count(), datasetPath);
+
+		statisticsCollector.start(Paths.get(datasetPath, "statistics"));
+		AtomicInteger skipped = new AtomicInteger();
+		ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		int window = pool.getParallelism() * FILES_PER_TASK;
+		Map<String, DocumentFileService.SplitExport> exports = new LinkedHashMap<>();
+		try {
+			for (String split : SPLITS) {
+				List<Integer> ids = manifest.getSplits().computeIfAbsent(split, k -> new ArrayList<>());
+				DocumentFileService.SplitExport export = fileService.openSplitExport(split, ids.size(), false);
+				exports.put(split, export);
+
+				ForkJoinTask<DocumentData[]> next = ids.isEmpty() ? null
+						: pool.submit(new ReannotateTask(ids, types, 0, Math.min(window, ids.size()), skipped));
+				for (int from = 0; from < ids.size(); from += window) {
+					DocumentData[] labeled = next.join();
+					int nextFrom = from + window;
+					next = nextFrom < ids.size()
+							? pool.submit(new ReannotateTask(ids, types, nextFrom, Math.min(nextFrom + window, ids.size()), skipped))
+							: null;
+					for (DocumentData doc : labeled) {
+						if (doc == null) continue;
+						export.write(doc);
+						statisticsCollector.recordSplit(split, doc.getLabelCounts());
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to export the splits of " + datasetPath, e);
+		} finally {
+			exports.values().forEach(DocumentFileService.SplitExport::close);
+			pool.shutdownNow();
+		}
+
+		if (skipped.get() > 0) {
+			log.warn("Skipped {} documents without readable raw text or entity sidecar", skipped.get());
+		}
+
+		fileService.saveRewrittenSplits(manifest, exports);
+		statisticsCollector.finish();
+		return exports.values().stream().mapToInt(DocumentFileService.SplitExport::getDocuments).sum();
+	}
+
+	private static DocumentType[] storedTypes(List<StoredDocument> rawFiles) {
+		int maxId = rawFiles.stream().mapToInt(StoredDocument::getDocumentId).max().orElse(0);
+		DocumentType[] types = new DocumentType[maxId + 1];
+		for (StoredDocument rawFile : rawFiles) {
+			types[rawFile.getDocumentId()] = rawFile.getDocumentType();
+		}
+		return types;
+	}
+
+	/**
+	 * Divides stored documents the manifest does not list yet, such as the output of an interrupted run, at the
+	 * configured ratios.
+	 */
+	private void addUnlisted(DocumentType[] types, DatasetManifest manifest) {
+		BitSet listed = new BitSet(types.length);
+		manifest.getSplits().values().forEach(ids -> ids.forEach(listed::set));
+		List<Integer> unlisted = new ArrayList<>();
+		for (int id = 1; id < types.length; id++) {
+			if (types[id] != null && !listed.get(id)) {
+				unlisted.add(id);
+			}
+		}
+		if (unlisted.isEmpty()) return;
+
+		if (!listed.isEmpty()) {
+			log.info("{} documents are not in the manifest yet, dividing them at the configured ratios", unlisted.size());
+		}
+		fileService.addToSplits(manifest, unlisted);
+	}
+
+	private DocumentData reannotateFile(int documentId, DocumentType docType) throws Exception {
+		String document;
+		InsuranceEntities entities;
+		AnnotatedDocument annotated;
+		DocumentContext.begin(documentId, docType);
+		try {
+			document = fileService.readRawDocument(documentId, docType);
+			entities = fileService.readEntities(documentId);
+			annotated = fileService.annotate(document, entities);
+			fileService.saveAnnotatedDocument(annotated, documentId);
+			statisticsCollector.recordDocument(docType, entities, annotated);
+		} finally {
+			DocumentContext.clear();
+		}
+
+		// Handed straight to the split exporters, so no document is labeled twice or kept after it is written
+		return new DocumentData(documentId, document, annotated, entities, docType, null, annotated.labelCounts());
+	}
+
+	/**
+	 * Labels the documents {@code ids[from, to)} into one shared array, {@code null} where a document was skipped.
+	 */
+	@SuppressWarnings("serial") // Never serialized
+	private class ReannotateTask extends RecursiveTask<DocumentData[]> {
+		private final List<Integer> ids;
+		private final DocumentType[] types;
+		private final DocumentData[] documents;
+		private final int offset;
+		private final int from;
+		private final int to;
+		private final AtomicInteger skipped;
+
+		ReannotateTask(List<Integer> ids, DocumentType[] types, int from, int to, AtomicInteger skipped) {
+			this(ids, types, new DocumentData[to - from], from, from, to, skipped);
+		}
+
+		private ReannotateTask(List<Integer> ids, DocumentType[] types, DocumentData[] documents, int offset, int from, int to,
+				AtomicInteger skipped) {
+			this.ids = ids;
+			this.types = types;
+			this.documents = documents;
+			this.offset = offset;
+			this.from = from;
+			this.to = to;
+			this.skipped = skipped;
+		}
+
+		@Override
+		protected DocumentData[] compute() {
+			if (to - from <= FILES_PER_TASK) {
+				for (int i = from; i < to; i++) {
+					int documentId = ids.get(i);
+					// Listed in the manifest but gone from the store
+					DocumentType docType = documentId < types.length ? types[documentId] : null;
+					try {
+						if (docType == null) {
+							throw new IOException("No raw document " + documentId);
+						}
+						documents[i - offset] = reannotateFile(documentId, docType);
+					} catch (Exception e) {
+						skipped.incrementAndGet();
+						log.debug("Could not re-annotate document {}", documentId, e);
+					}
+				}
+				return documents;
+			}
+
+			int middle = (from + to) >>> 1;
+			invokeAll(new ReannotateTask(ids, types, documents, offset, from, middle, skipped),
+					new ReannotateTask(ids, types, documents, offset, middle, to, skipped));
+			return documents;
+		}
+	}
+}
@@ -1,21 +1,37 @@
 package com.sever0x.datagenerator.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sever0x.datagenerator.annotation.EntitySpanLabeler;
+import com.sever0x.datagenerator.data.AnnotatedDocument;
+import com.sever0x.datagenerator.data.DatasetManifest;
 import com.sever0x.datagenerator.data.DocumentData;
 import com.sever0x.datagenerator.data.InsuranceEntities;
+import com.sever0x.datagenerator.export.DatasetExporter;
+import com.sever0x.datagenerator.jfr.ConllConversionEvent;
+import com.sever0x.datagenerator.jfr.FileWriteEvent;
+import com.sever0x.datagenerator.jfr.SplitAssemblyEvent;
+import com.sever0x.datagenerator.job.JobScoped;
+import com.sever0x.datagenerator.statistics.DatasetStatisticsCollector;
+import com.sever0x.datagenerator.storage.DocumentKind;
+import com.sever0x.datagenerator.storage.DocumentStore;
+import com.sever0x.datagenerator.storage.StoredDocument;
 import com.sever0x.datagenerator.types.DocumentType;
+import com.sever0x.datagenerator.types.EntityType;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -23,26 +39,85 @@ import java.util.stream.Collectors;
 @Setter
 @Slf4j
 @Service
+@JobScoped
 public class DocumentFileService {
 
 	@Value("${dataset.output-path}")
 	private String basePath;
 
+	@Value("${dataset.export.formats:conll,flair}")
+	private List<String> exportFormats;
+
+	@Value("${dataset.storage.layout:flat}")
+	private String storageLayout;
+
+	@Value("${dataset.split.train-ratio:0.7}")
+	private double trainRatio;
+
+	@Value("${dataset.split.dev-ratio:0.15}")
+	private double devRatio;
+
+	private final EntitySpanLabeler spanLabeler;
+	private final DatasetStatisticsCollector statisticsCollector;
+	private final Map<String, DatasetExporter> exporters = new LinkedHashMap<>();
+	private final Map<String, DocumentStore> stores = new LinkedHashMap<>();
+
+	// Opened on first use, so nothing is created at the default output path before --output is applied
+	private volatile DocumentStore.Documents documents;
+
+	public DocumentFileService(EntitySpanLabeler spanLabeler, DatasetStatisticsCollector statisticsCollector, List<DatasetExporter> exporters,
+			List<DocumentStore> stores) {
+		this.spanLabeler = spanLabeler;
+		this.statisticsCollector = statisticsCollector;
+		exporters.forEach(exporter -> this.exporters.put(exporter.getFormat(), exporter));
+		stores.forEach(store -> this.stores.put(store.getLayout(), store));
+	}
+
+	private static final String MANIFEST_FILE = "manifest.json";
+
+	private final ObjectMapper sidecarMapper = new ObjectMapper();
+
 	@PostConstruct
-	public void initDirectories() {
-		createDirectoryStructure();
+	public void validateConfiguration() {
+		for (String format : exportFormats) {
+			if (!exporters.containsKey(format.strip())) {
+				throw new IllegalStateException("Unknown export format '" + format.strip() + "', available: " + exporters.keySet());
+			}
+		}
+		if (!stores.containsKey(storageLayout)) {
+			throw new IllegalStateException("Unknown storage layout '" + storageLayout + "', available: " + stores.keySet());
+		}
 	}
 
-	private void createDirectoryStructure() {
+	public void setBasePath(String basePath) {
+		closeDocuments();
+		this.basePath = basePath;
+	}
+
+	private DocumentStore.Documents documents() {
+		DocumentStore.Documents opened = documents;
+		if (opened == null) {
+			synchronized (this) {
+				if (documents == null) {
+					documents = createDirectoryStructure();
+				}
+				opened = documents;
+			}
+		}
+		return opened;
+	}
+
+	private DocumentStore.Documents createDirectoryStructure() {
 		try {
-			Files.createDirectories(Paths.get(basePath, "raw_documents"));
-			Files.createDirectories(Paths.get(basePath, "annotated_data"));
 			Files.createDirectories(Paths.get(basePath, "training_data"));
 			Files.createDirectories(Paths.get(basePath, "statistics"));
-			Files.createDirectories(Paths.get(basePath, "by_type"));
 			Files.createDirectories(Paths.get(basePath, "flair_ready"));
 
-			log.info("Created directory structure at: {}", basePath);
+			// The store lays out the per-document files
+			DocumentStore.Documents opened = stores.get(storageLayout).open(Paths.get(basePath));
+
+			log.info("Created directory structure at: {} ({} layout)", basePath, storageLayout);
+			return opened;
 
 		} catch (IOException e) {
 			throw new RuntimeException("Failed to create directories", e);
@@ -50,11 +125,12 @@ public class DocumentFileService {
 	}
 
 	public String saveRawDocument(String content, int documentId, DocumentType docType) {
-		String fileName = String.format("doc_%04d_%s.txt", documentId, docType.name().toLowerCase());
-		Path filePath = Paths.get(basePath, "raw_documents", fileName);
+		String fileName = DocumentKind.RAW.fileName(documentId, docType);
 
 		try {
-			Files.writeString(filePath, content, StandardCharsets.UTF_8);
+			FileWriteEvent event = FileWriteEvent.start("raw");
+			Path filePath = documents().write(DocumentKind.RAW, documentId, docType, content);
+			event.finish(filePath, content.length());
 			log.debug("Saved raw document: {}", fileName);
 			return filePath.toString();
 
@@ -65,12 +141,17 @@ public class DocumentFileService {
 	}
 
 	public String saveAnnotatedDocument(String content, InsuranceEntities entities, int documentId) {
-		String conllContent = convertToCoNLLFormat(content, entities);
-		String fileName = String.format("doc_%04d.conll", documentId);
-		Path filePath = Paths.get(basePath, "annotated_data", fileName);
+		return saveAnnotatedDocument(annotate(content, entities), documentId);
+	}
+
+	public String saveAnnotatedDocument(AnnotatedDocument annotated, int documentId) {
+		String conllContent = annotated.toConll();
+		String fileName = DocumentKind.ANNOTATED.fileName(documentId, null);
 
 		try {
-			Files.writeString(filePath, conllContent, StandardCharsets.UTF_8);
+			FileWriteEvent event = FileWriteEvent.start("annotated");
+			Path filePath = documents().write(DocumentKind.ANNOTATED, documentId, null, conllContent);
+			event.finish(filePath, conllContent.length());
 			log.debug("Saved annotated data: {}", fileName);
 			return filePath.toString();
 		} catch (IOException e) {
@@ -79,156 +160,362 @@ public class DocumentFileService {
 		}
 	}
 
-	private String convertToCoNLLFormat(String text, InsuranceEntities entities) {
-		String[] sentences = text.split("\\n\\s*\\n|\\n(?=\\p{Upper})");
-		StringBuilder conllOutput = new StringBuilder();
+	public String convertToCoNLLFormat(String text, InsuranceEntities entities) {
+		return annotate(text, entities).toConll();
+	}
+
+	public AnnotatedDocument annotate(String text, InsuranceEntities entities) {
+		ConllConversionEvent event = ConllConversionEvent.start(text);
+		AnnotatedDocument annotated = spanLabeler.annotate(text, entities);
+		event.finish(annotated.getTokenCount(), annotated.getSentenceCount());
+		return annotated;
+	}
+
+	public void saveEntities(InsuranceEntities entities, int documentId) {
+		try {
+			String json = sidecarMapper.writeValueAsString(entities);
+			FileWriteEvent event = FileWriteEvent.start("entities");
+			Path filePath = documents().write(DocumentKind.ENTITIES, documentId, null, json);
+			event.finish(filePath, json.length());
+			log.debug("Saved entity sidecar for document {}", documentId);
+		} catch (IOException e) {
+			log.error("Failed to save entities for document {}", documentId, e);
+			throw new RuntimeException("Entity save failed", e);
+		}
+	}
+
+	public InsuranceEntities readEntities(int documentId) throws IOException {
+		return sidecarMapper.readValue(documents().read(DocumentKind.ENTITIES, documentId, null), InsuranceEntities.class);
+	}
 
-		for (String sentence : sentences) {
-			if (sentence.trim().isEmpty()) continue;
+	public String readRawDocument(int documentId, DocumentType docType) throws IOException {
+		return documents().read(DocumentKind.RAW, documentId, docType);
+	}
 
-			String[] tokens = tokenize(sentence);
-			String[] labels = assignLabels(tokens, sentence, entities);
+	/**
+	 * Raw documents of the dataset in ID order.
+	 */
+	public List<StoredDocument> listRawDocuments() throws IOException {
+		return documents().list(DocumentKind.RAW);
+	}
 
-			for (int i = 0; i < tokens.length; i++) {
-				conllOutput.append(tokens[i]).append("\t").append(labels[i]).append("\n");
+	public void saveByType(String content, DocumentType docType, int documentId) {
+		try {
+			FileWriteEvent event = FileWriteEvent.start("by_type");
+			Path filePath = documents().write(DocumentKind.BY_TYPE, documentId, docType, content);
+			if (filePath != null) {
+				event.finish(filePath, content.length());
 			}
-			conllOutput.append("\n");
+
+		} catch (IOException e) {
+			log.error("Failed to save document by type", e);
 		}
+	}
 
-		return conllOutput.toString();
+	public void createTrainingSplits(List<DocumentData> allDocuments) {
+		createTrainingSplits(allDocuments, Map.of());
 	}
 
-	private String[] tokenize(String sentence) {
-		// Simple German-aware tokenization
-		return sentence.replaceAll("([.!?:;,])(?=\\s|$)", " $1").replaceAll("(\\d+)([.-])(\\d+)", "$1 $2 $3").split("\\s+");
+	public void createTrainingSplits(List<DocumentData> allDocuments, Map<String, Long> rejectionCounts) {
+		Map<String, List<DocumentData>> splits = assignSplits(allDocuments);
+		// Splits are independent, so they are exported concurrently
+		splits.entrySet().parallelStream().forEach(split -> exportSplit(split.getKey(), split.getValue(), false));
+		splits.forEach((split, docs) -> docs.forEach(doc -> statisticsCollector.recordSplit(split, doc.getLabelCounts())));
+
+		saveDatasetStatistics(splits.get("train").size(), splits.get("dev").size(), splits.get("test").size(), allDocuments, rejectionCounts);
+		saveManifest(splits, new DatasetManifest(), false);
+
+		log.info("Created training splits: train={}, dev={}, test={} as {}", splits.get("train").size(), splits.get("dev").size(),
+				splits.get("test").size(), exportFormats);
 	}
 
-	private String[] assignLabels(String[] tokens, String originalSentence, InsuranceEntities entities) {
-		String[] labels = new String[tokens.length];
-		Arrays.fill(labels, "O");
+	/**
+	 * Adds newly generated documents to an existing dataset. Only the new documents are divided at the configured
+	 * ratios; they are appended to the split files, the manifest and {@code dataset_stats.json}, and the existing
+	 * documents are neither read back nor rewritten.
+	 */
+	public void appendTrainingSplits(List<DocumentData> newDocuments, Map<String, Long> rejectionCounts, DatasetManifest manifest) {
+		Map<String, List<DocumentData>> splits = assignSplits(newDocuments);
+		splits.entrySet().parallelStream().forEach(split -> exportSplit(split.getKey(), split.getValue(), true));
+		splits.forEach((split, docs) -> docs.forEach(doc -> statisticsCollector.recordSplit(split, doc.getLabelCounts())));
+
+		appendDatasetStatistics(splits, rejectionCounts);
+		saveManifest(splits, manifest, true);
+
+		log.info("Appended to training splits: train+{}, dev+{}, test+{} as {}", splits.get("train").size(), splits.get("dev").size(),
+				splits.get("test").size(), exportFormats);
+	}
 
-		// Use original sentence for accurate position mapping
-		assignEntityLabelsWithPositions(tokens, labels, originalSentence, entities.getContractNumbers(), "CONTRACT_NUMBER");
-		assignEntityLabelsWithPositions(tokens, labels, originalSentence, entities.getCustomerIds(), "CUSTOMER_ID");
-		assignEntityLabelsWithPositions(tokens, labels, originalSentence, entities.getCompanyNames(), "COMPANY_NAME");
-		assignEntityLabelsWithPositions(tokens, labels, originalSentence, entities.getPersonNames(), "PERSON_NAME");
+	/**
+	 * Completes a rewrite of the split files of an existing dataset, after every document went through
+	 * {@link #openSplitExport} into the split the manifest lists it in. The statistics are rebuilt from the counts
+	 * of the exports; rejection counts, which only generation knows, are kept from the previous statistics. The
+	 * manifest keeps its splits and run history.
+	 */
+	public void saveRewrittenSplits(DatasetManifest manifest, Map<String, SplitExport> exports) {
+		Map<String, Integer> entityCounts = new HashMap<>();
+		Map<String, Integer> docTypeCounts = new HashMap<>();
+		for (SplitExport export : exports.values()) {
+			export.entityCounts.forEach((type, count) -> entityCounts.merge(type, count, Integer::sum));
+			export.documentTypeCounts.forEach((type, count) -> docTypeCounts.merge(type, count, Integer::sum));
+		}
+		int train = exports.get("train").getDocuments();
+		int dev = exports.get("dev").getDocuments();
+		int test = exports.get("test").getDocuments();
+		writeDatasetStatistics(datasetStatistics(train, dev, test, entityCounts, docTypeCounts, previousRejectionCounts()));
+
+		manifest.setExportFormats(exportFormats.stream().map(String::strip).toList());
+		manifest.setStorageLayout(storageLayout);
+		writeManifest(manifest);
 
-		return labels;
+		log.info("Rewrote training splits: train={}, dev={}, test={} as {}", train, dev, test, exportFormats);
 	}
 
-	private void assignEntityLabelsWithPositions(String[] tokens, String[] labels, String originalSentence, List<String> entities, String entityType) {
-		for (String entity : entities) {
-			int entityStart = originalSentence.indexOf(entity);
-			if (entityStart == -1) continue;
+	/**
+	 * Divides documents the manifest does not list yet at the configured ratios and adds them to its splits.
+	 */
+	public void addToSplits(DatasetManifest manifest, List<Integer> documentIds) {
+		assignSplits(new ArrayList<>(documentIds)).forEach((split, ids) -> {
+			manifest.getSplits().computeIfAbsent(split, k -> new ArrayList<>()).addAll(ids);
+			ids.forEach(id -> manifest.setMaxDocumentId(Math.max(manifest.getMaxDocumentId(), id)));
+		});
+	}
 
-			// Find corresponding tokens for this entity position
-			int[] tokenRange = findTokensForPosition(tokens, originalSentence, entityStart, entity.length());
-			if (tokenRange[0] != -1 && tokenRange[1] != -1) {
-				// Assign BIO labels
-				if (tokenRange[0] == tokenRange[1]) {
-					labels[tokenRange[0]] = "S-" + entityType;
-				} else {
-					labels[tokenRange[0]] = "B-" + entityType;
-					for (int i = tokenRange[0] + 1; i <= tokenRange[1]; i++) {
-						labels[i] = "I-" + entityType;
-					}
-				}
-			}
+	/**
+	 * Reads the manifest of the dataset at the current base path for an {@code --append} run.
+	 */
+	public DatasetManifest loadManifest() {
+		DatasetManifest manifest = readManifest();
+		if (manifest == null) {
+			throw new IllegalStateException("No " + MANIFEST_FILE + " in " + basePath + ", generate the dataset once before appending to it");
+		}
+		List<String> formats = exportFormats.stream().map(String::strip).toList();
+		if (!new HashSet<>(manifest.getExportFormats()).equals(new HashSet<>(formats))) {
+			throw new IllegalStateException("Dataset in " + basePath + " was exported as " + manifest.getExportFormats()
+					+ ", cannot append as " + formats);
+		}
+		return manifest;
+	}
+
+	/**
+	 * The manifest of the dataset at the current base path, or {@code null} for a dataset written before manifests
+	 * existed. The dataset must use the configured storage layout.
+	 */
+	public DatasetManifest readManifest() {
+		Path manifestPath = Paths.get(basePath, MANIFEST_FILE);
+		if (!Files.exists(manifestPath)) return null;
+		DatasetManifest manifest;
+		try {
+			manifest = sidecarMapper.readValue(manifestPath.toFile(), DatasetManifest.class);
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed to read " + manifestPath, e);
+		}
+
+		String layout = manifest.getStorageLayout() != null ? manifest.getStorageLayout() : "flat";
+		if (!layout.equals(storageLayout)) {
+			throw new IllegalStateException("Dataset in " + basePath + " uses the " + layout + " storage layout, not " + storageLayout);
 		}
+		return manifest;
 	}
 
-	private int[] findTokensForPosition(String[] tokens, String originalSentence, int start, int length) {
-		// Map character positions to token indices
-		int charPos = 0;
-		int startToken = -1, endToken = -1;
+	private <T> Map<String, List<T>> assignSplits(List<T> documents) {
+		Collections.shuffle(documents);
 
-		for (int i = 0; i < tokens.length; i++) {
-			// Skip whitespace
-			while (charPos < originalSentence.length() && Character.isWhitespace(originalSentence.charAt(charPos))) {
-				charPos++;
-			}
+		int totalSize = documents.size();
+		int trainSize = (int) (totalSize * trainRatio);
+		int devSize = (int) (totalSize * devRatio);
 
-			int tokenStart = charPos;
-			int tokenEnd = charPos + tokens[i].length();
+		Map<String, List<T>> splits = new LinkedHashMap<>();
+		splits.put("train", documents.subList(0, trainSize));
+		splits.put("dev", documents.subList(trainSize, trainSize + devSize));
+		splits.put("test", documents.subList(trainSize + devSize, totalSize));
+		return splits;
+	}
 
-			// Check if this token overlaps with entity
-			if (startToken == -1 && tokenEnd > start) {
-				startToken = i;
-			}
-			if (tokenStart < start + length) {
-				endToken = i;
+	private void saveManifest(Map<String, List<DocumentData>> splits, DatasetManifest manifest, boolean append) {
+		int first = Integer.MAX_VALUE;
+		int last = 0;
+		int documents = 0;
+		for (Map.Entry<String, List<DocumentData>> split : splits.entrySet()) {
+			List<Integer> ids = manifest.getSplits().computeIfAbsent(split.getKey(), k -> new ArrayList<>());
+			for (DocumentData doc : split.getValue()) {
+				ids.add(doc.getDocumentId());
+				first = Math.min(first, doc.getDocumentId());
+				last = Math.max(last, doc.getDocumentId());
+				documents++;
 			}
-
-			charPos = tokenEnd;
 		}
+		manifest.setMaxDocumentId(Math.max(manifest.getMaxDocumentId(), last));
+		manifest.setExportFormats(exportFormats.stream().map(String::strip).toList());
+		manifest.setStorageLayout(storageLayout);
+		manifest.getRuns().add(new DatasetManifest.Run(LocalDateTime.now().toString(), append, documents,
+				documents > 0 ? first : 0, last));
+		writeManifest(manifest);
+	}
 
-		return new int[]{startToken, endToken};
+	private void writeManifest(DatasetManifest manifest) {
+		Path manifestPath = Paths.get(basePath, MANIFEST_FILE);
+		try {
+			Path tmp = manifestPath.resolveSibling(MANIFEST_FILE + ".tmp");
+			sidecarMapper.writeValue(tmp.toFile(), manifest);
+			Files.move(tmp, manifestPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			log.error("Failed to save manifest", e);
+		}
 	}
 
-	public void saveByType(String content, DocumentType docType, int documentId) {
-		String typeDir = docType.name().toLowerCase();
-		Path typeDirectory = Paths.get(basePath, "by_type", typeDir);
+	/**
+	 * Walks the split once and feeds every document's token/label stream to all configured exporters.
+	 */
+	private void exportSplit(String split, List<DocumentData> documents, boolean append) {
+		try (SplitExport export = openSplitExport(split, documents.size(), append)) {
+			for (DocumentData doc : documents) {
+				export.write(doc);
+			}
+		} catch (IOException e) {
+			log.error("Failed to export {} split", split, e);
+		}
+	}
 
+	/**
+	 * Opens the split's file in every configured format. Documents are written as they are handed over, so a
+	 * split can be exported without holding all of its documents.
+	 */
+	public SplitExport openSplitExport(String split, int expectedDocuments, boolean append) throws IOException {
+		SplitExport export = new SplitExport(split, expectedDocuments);
 		try {
-			Files.createDirectories(typeDirectory);
-			String fileName = String.format("%s_%04d.txt", typeDir, documentId);
-			Path filePath = typeDirectory.resolve(fileName);
-			Files.writeString(filePath, content, StandardCharsets.UTF_8);
-
+			for (String format : exportFormats) {
+				export.writers.add(exporters.get(format.strip()).open(Paths.get(basePath), split, append));
+			}
 		} catch (IOException e) {
-			log.error("Failed to save document by type", e);
+			export.close();
+			throw e;
 		}
+		return export;
 	}
 
-	public void createTrainingSplits(List<DocumentData> allDocuments) {
-		Collections.shuffle(allDocuments);
+	/**
+	 * Writers of one split in all export formats, with the counts the dataset statistics need.
+	 */
+	public static final class SplitExport implements Closeable {
+		private final SplitAssemblyEvent event;
+		private final List<DatasetExporter.SplitWriter> writers = new ArrayList<>();
+		private final Map<String, Integer> entityCounts = new HashMap<>();
+		private final Map<String, Integer> documentTypeCounts = new HashMap<>();
+		@Getter
+		private int documents;
+
+		private SplitExport(String split, int expectedDocuments) {
+			event = SplitAssemblyEvent.start(split, expectedDocuments);
+		}
+
+		public void write(DocumentData doc) throws IOException {
+			for (DatasetExporter.SplitWriter writer : writers) {
+				writer.write(doc, doc.getAnnotated());
+			}
+			documents++;
+			for (EntityType type : EntityType.values()) {
+				entityCounts.merge(type.name(), type.valuesOf(doc.getEntities()).size(), Integer::sum);
+			}
+			documentTypeCounts.merge(doc.getDocumentType().name(), 1, Integer::sum);
+		}
 
-		int totalSize = allDocuments.size();
-		int trainSize = (int) (totalSize * 0.7);
-		int devSize = (int) (totalSize * 0.15);
+		@Override
+		public void close() {
+			long written = 0;
+			for (DatasetExporter.SplitWriter writer : writers) {
+				try {
+					writer.close();
+					written += Files.size(writer.getPath());
+				} catch (IOException e) {
+					log.error("Failed to close {}", writer.getPath(), e);
+				}
+			}
+			event.finish(written);
+		}
+	}
 
-		List<DocumentData> trainDocs = allDocuments.subList(0, trainSize);
-		List<DocumentData> devDocs = allDocuments.subList(trainSize, trainSize + devSize);
-		List<DocumentData> testDocs = allDocuments.subList(trainSize + devSize, totalSize);
+	public void saveDatasetStatistics(int trainSize, int devSize, int testSize, List<DocumentData> allDocuments, Map<String, Long> rejectionCounts) {
+		writeDatasetStatistics(datasetStatistics(trainSize, devSize, testSize, allDocuments, rejectionCounts));
+	}
 
-		saveTrainingFile("train.conll", trainDocs);
-		saveTrainingFile("dev.conll", devDocs);
-		saveTrainingFile("test.conll", testDocs);
+	/**
+	 * Adds the counts of an appended run to the existing {@code dataset_stats.json}.
+	 */
+	@SuppressWarnings("unchecked")
+	private void appendDatasetStatistics(Map<String, List<DocumentData>> splits, Map<String, Long> rejectionCounts) {
+		List<DocumentData> documents = splits.values().stream().flatMap(List::stream).toList();
+		Map<String, Object> added = datasetStatistics(splits.get("train").size(), splits.get("dev").size(), splits.get("test").size(),
+				documents, rejectionCounts);
 
-		saveDatasetStatistics(trainDocs.size(), devDocs.size(), testDocs.size(), allDocuments);
+		Map<String, Object> stats = new HashMap<>();
+		Path statsPath = Paths.get(basePath, "statistics", "dataset_stats.json");
+		if (Files.exists(statsPath)) {
+			try {
+				stats = sidecarMapper.readValue(statsPath.toFile(), Map.class);
+			} catch (IOException e) {
+				log.warn("Could not read {}, writing statistics of the appended documents only", statsPath, e);
+			}
+		}
 
-		log.info("Created training splits: train={}, dev={}, test={}", trainDocs.size(), devDocs.size(), testDocs.size());
+		for (Map.Entry<String, Object> entry : added.entrySet()) {
+			Object previous = stats.get(entry.getKey());
+			if (entry.getValue() instanceof Number count && previous instanceof Number total) {
+				stats.put(entry.getKey(), total.longValue() + count.longValue());
+			} else if (entry.getValue() instanceof Map<?, ?> counts && previous instanceof Map<?, ?> totals) {
+				Map<String, Long> merged = new TreeMap<>();
+				((Map<String, Number>) totals).forEach((key, value) -> merged.merge(key, value.longValue(), Long::sum));
+				((Map<String, Number>) counts).forEach((key, value) -> merged.merge(key, value.longValue(), Long::sum));
+				stats.put(entry.getKey(), merged);
+			} else {
+				stats.put(entry.getKey(), entry.getValue());
+			}
+		}
+		writeDatasetStatistics(stats);
 	}
 
-	private void saveTrainingFile(String fileName, List<DocumentData> documents) {
-		Path filePath = Paths.get(basePath, "training_data", fileName);
-
-		try (BufferedWriter writer = Files.newBufferedWriter(filePath, StandardCharsets.UTF_8)) {
-			for (DocumentData doc : documents) {
-				writer.write(doc.getConllContent());
-				writer.write("\n\n");
+	/**
+	 * Rejection counts of the current {@code dataset_stats.json}, or none if it cannot be read.
+	 */
+	@SuppressWarnings("unchecked")
+	private Map<String, Long> previousRejectionCounts() {
+		Path statsPath = Paths.get(basePath, "statistics", "dataset_stats.json");
+		Map<String, Long> counts = new TreeMap<>();
+		if (!Files.exists(statsPath)) return counts;
+		try {
+			Map<String, Object> stats = sidecarMapper.readValue(statsPath.toFile(), Map.class);
+			if (stats.get("rejection_counts") instanceof Map<?, ?> previous) {
+				((Map<String, Number>) previous).forEach((reason, count) -> counts.put(reason, count.longValue()));
 			}
 		} catch (IOException e) {
-			log.error("Failed to save training file {}", fileName, e);
+			log.warn("Could not read {}, rejection counts are lost", statsPath, e);
 		}
+		return counts;
 	}
 
-	public void saveDatasetStatistics(int trainSize, int devSize, int testSize, List<DocumentData> allDocuments) {
+	private Map<String, Object> datasetStatistics(int trainSize, int devSize, int testSize, List<DocumentData> allDocuments, Map<String, Long> rejectionCounts) {
+		Map<String, Integer> docTypeCounts = allDocuments.stream().collect(Collectors.groupingBy(doc -> doc.getDocumentType().name(), Collectors.summingInt(doc -> 1)));
+		return datasetStatistics(trainSize, devSize, testSize, countEntities(allDocuments), docTypeCounts, rejectionCounts);
+	}
+
+	private Map<String, Object> datasetStatistics(int trainSize, int devSize, int testSize, Map<String, Integer> entityCounts,
+			Map<String, Integer> docTypeCounts, Map<String, Long> rejectionCounts) {
 		Map<String, Object> stats = new HashMap<>();
 		stats.put("generation_date", LocalDateTime.now().toString());
-		stats.put("total_documents", allDocuments.size());
+		stats.put("total_documents", trainSize + devSize + testSize);
 		stats.put("train_size", trainSize);
 		stats.put("dev_size", devSize);
 		stats.put("test_size", testSize);
-
-		Map<String, Integer> entityCounts = countEntities(allDocuments);
 		stats.put("entity_counts", entityCounts);
-
-		Map<String, Integer> docTypeCounts = allDocuments.stream().collect(Collectors.groupingBy(doc -> doc.getDocumentType().name(), Collectors.summingInt(doc -> 1)));
 		stats.put("document_type_counts", docTypeCounts);
+		stats.put("rejection_counts", rejectionCounts);
+		return stats;
+	}
 
+	private void writeDatasetStatistics(Map<String, Object> stats) {
 		Path statsPath = Paths.get(basePath, "statistics", "dataset_stats.json");
 		try {
+			Files.createDirectories(statsPath.getParent());
 			ObjectMapper mapper = new ObjectMapper();
 			mapper.writeValue(statsPath.toFile(), stats);
 			log.info("Saved dataset statistics to {}", statsPath);
@@ -242,10 +529,9 @@ public class DocumentFileService {
 
 		for (DocumentData doc : documents) {
 			InsuranceEntities entities = doc.getEntities();
-			counts.merge("CONTRACT_NUMBER", entities.getContractNumbers().size(), Integer::sum);
-			counts.merge("CUSTOMER_ID", entities.getCustomerIds().size(), Integer::sum);
-			counts.merge("COMPANY_NAME", entities.getCompanyNames().size(), Integer::sum);
-			counts.merge("PERSON_NAME", entities.getPersonNames().size(), Integer::sum);
+			for (EntityType type : EntityType.values()) {
+				counts.merge(type.name(), type.valuesOf(entities).size(), Integer::sum);
+			}
 		}
 
 		return counts;
@@ -255,19 +541,14 @@ public class DocumentFileService {
 		return basePath;
 	}
 
-	public void exportForFlair() {
-		Path flairPath = Paths.get(basePath, "flair_ready");
+	@PreDestroy
+	public synchronized void closeDocuments() {
+		if (documents == null) return;
 		try {
-			Files.createDirectories(flairPath);
-			Files.copy(Paths.get(basePath, "training_data", "train.conll"), flairPath.resolve("train.txt"));
-			Files.copy(Paths.get(basePath, "training_data", "dev.conll"), flairPath.resolve("dev.txt"));
-			Files.copy(Paths.get(basePath, "training_data", "test.conll"), flairPath.resolve("test.txt"));
-
-			log.info("Exported Flair-ready files to {}", flairPath);
-
+			documents.close();
 		} catch (IOException e) {
-			log.error("Failed to export for Flair", e);
+			log.warn("Failed to close document store at {}", basePath, e);
 		}
+		documents = null;
 	}
-
 }
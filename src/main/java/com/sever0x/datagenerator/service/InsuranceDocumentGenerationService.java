@@ -1,35 +1,64 @@
 package com.sever0x.datagenerator.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sever0x.datagenerator.types.CallKind;
 import com.sever0x.datagenerator.types.DocumentType;
 import com.sever0x.datagenerator.types.InsuranceCompanyType;
+import com.sever0x.datagenerator.data.GenerationResult;
 import com.sever0x.datagenerator.data.InsuranceEntities;
+import com.sever0x.datagenerator.jfr.ApiCallEvent;
+import com.sever0x.datagenerator.jfr.ExtractionParseEvent;
 import com.sever0x.datagenerator.types.WritingStyle;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.metadata.Usage;
 import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.openai.OpenAiChatModel;
 import org.springframework.ai.openai.OpenAiChatOptions;
-import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.ai.openai.api.ResponseFormat;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @Service
 public class InsuranceDocumentGenerationService {
 	private final OpenAiChatModel openAiChatModel;
 	private final ObjectMapper objectMapper;
+	private final ApiRateLimiter rateLimiter;
+	private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+	private final OpenAiRoutingProperties routing;
+	private final OpenAiCallMetrics callMetrics;
+	private final TolerantJsonParser jsonParser;
 
 	public InsuranceDocumentGenerationService(
 			OpenAiChatModel openAiChatModel,
-			ObjectMapper objectMapper
+			ObjectMapper objectMapper,
+			ApiRateLimiter rateLimiter,
+			AdaptiveConcurrencyLimiter concurrencyLimiter,
+			OpenAiRoutingProperties routing,
+			OpenAiCallMetrics callMetrics
 	) {
 		this.openAiChatModel = openAiChatModel;
 		this.objectMapper = objectMapper;
+		this.rateLimiter = rateLimiter;
+		this.concurrencyLimiter = concurrencyLimiter;
+		this.routing = routing;
+		this.callMetrics = callMetrics;
+		this.jsonParser = new TolerantJsonParser(objectMapper);
 	}
 
 	private static final String SYSTEM_PROMPT = """
@@ -59,7 +88,24 @@ public class InsuranceDocumentGenerationService {
         KONTEXT: Diese Dokumente werden für NER-Training verwendet - Entitäten müssen klar erkennbar sein.
         """;
 
-	public String generatePolicyConfirmation() {
+	// Extraction needs none of the generation persona, only the output contract
+	private static final String EXTRACTION_SYSTEM_PROMPT = """
+        Du extrahierst Entitäten aus deutschen Versicherungsdokumenten. Übernimm jede Entität wörtlich aus dem Text.
+        Antworte ausschließlich mit einem JSON-Objekt im verlangten Format.
+        """;
+
+	private static final String RECOGNITION_RULES = """
+            ERKENNUNGSREGELN:
+            - Contract Numbers: VS-, POL-, KV-, VN, LV-, HV-, RV-, UV- + Nummern
+            - Customer IDs: KD-, KUNDE-, KN, KDNR + Nummern \s
+            - Company Names: Versicherungsgesellschaften, Makler, mit AG/GmbH
+            - Person Names: Herr/Frau/Dr./Prof. + Vor- und Nachname
+            - Amounts: EUR-Beträge, Versicherungssummen, Beiträge
+            - Dates: Datumsangaben (TT.MM.JJJJ)
+            - Addresses: Vollständige Adressen mit Straße, PLZ, Ort
+           \s""";
+
+	public List<GenerationResult> generatePolicyConfirmation(int choices) {
 		String userPrompt = """
             Generiere eine VERSICHERUNGSPOLICE-BESTÄTIGUNG auf Deutsch.
            \s
@@ -87,10 +133,10 @@ public class InsuranceDocumentGenerationService {
             Erstelle ein authentisches deutsches Dokument!
            \s""";
 
-		return callOpenAI(userPrompt);
+		return callOpenAI(CallKind.STANDARD, userPrompt, choices);
 	}
 
-	public String generateClaimReport() {
+	public List<GenerationResult> generateClaimReport(int choices) {
 		String userPrompt = """
             Generiere eine SCHADENSMELDUNG auf Deutsch.
             
@@ -119,10 +165,10 @@ public class InsuranceDocumentGenerationService {
             Verwende authentische Versicherungsterminologie!
             """;
 
-		return callOpenAI(userPrompt);
+		return callOpenAI(CallKind.STANDARD, userPrompt, choices);
 	}
 
-	public String generatePremiumAdjustment() {
+	public List<GenerationResult> generatePremiumAdjustment(int choices) {
 		String userPrompt = """
             Generiere eine BEITRAGSANPASSUNG-MITTEILUNG auf Deutsch.
            \s
@@ -154,10 +200,10 @@ public class InsuranceDocumentGenerationService {
             Sei höflich aber sachlich!
            \s""";
 
-		return callOpenAI(userPrompt);
+		return callOpenAI(CallKind.STANDARD, userPrompt, choices);
 	}
 
-	public String generateCancellationLetter() {
+	public List<GenerationResult> generateCancellationLetter(int choices) {
 		String userPrompt = """
             Generiere ein KÜNDIGUNGS-SCHREIBEN auf Deutsch.
             
@@ -188,10 +234,10 @@ public class InsuranceDocumentGenerationService {
             Verwende korrekte Rechtsterminologie!
             """;
 
-		return callOpenAI(userPrompt);
+		return callOpenAI(CallKind.STANDARD, userPrompt, choices);
 	}
 
-	public String generatePaymentReminder() {
+	public List<GenerationResult> generatePaymentReminder(int choices) {
 		String userPrompt = """
             Generiere eine ZAHLUNGSERINNERUNG/MAHNUNG auf Deutsch.
             
@@ -222,10 +268,10 @@ public class InsuranceDocumentGenerationService {
             Ton sollte angemessen eskalieren!
             """;
 
-		return callOpenAI(userPrompt);
+		return callOpenAI(CallKind.STANDARD, userPrompt, choices);
 	}
 
-	public String generateInsuranceQuote() {
+	public List<GenerationResult> generateInsuranceQuote(int choices) {
 		String userPrompt = """
             Generiere ein VERSICHERUNGS-ANGEBOT auf Deutsch.
             
@@ -257,7 +303,7 @@ public class InsuranceDocumentGenerationService {
             Verkaufe professionell aber nicht aufdringlich!
             """;
 
-		return callOpenAI(userPrompt);
+		return callOpenAI(CallKind.STANDARD, userPrompt, choices);
 	}
 
 	public InsuranceEntities extractEntities(String documentText) {
@@ -280,29 +326,124 @@ public class InsuranceDocumentGenerationService {
               "addresses": ["Hauptstraße 15, 10115 Berlin"]
             }
            \s
-            ERKENNUNGSREGELN:
-            - Contract Numbers: VS-, POL-, KV-, VN, LV-, HV-, RV-, UV- + Nummern
-            - Customer IDs: KD-, KUNDE-, KN, M- + Nummern \s
-            - Company Names: Versicherungsgesellschaften, Makler, mit AG/GmbH
-            - Person Names: Herr/Frau/Dr./Prof. + Vor- und Nachname
-            - Amounts: EUR-Beträge, Versicherungssummen, Beiträge
-            - Dates: Datumsangaben (TT.MM.JJJJ)
-            - Addresses: Vollständige Adressen mit Straße, PLZ, Ort
+            %s""".formatted(documentText, RECOGNITION_RULES);
+
+		String response = callExtraction(extractionPrompt, 1).getContent();
+
+		ExtractionParseEvent event = ExtractionParseEvent.start(response);
+		TolerantJsonParser.Result parsed = jsonParser.parse(response);
+		try {
+			if (parsed.getRoot() instanceof ObjectNode root) {
+				InsuranceEntities entities = objectMapper.treeToValue(root, InsuranceEntities.class);
+				event.finish(parsed.isComplete(), !parsed.isComplete());
+				if (!parsed.isComplete()) {
+					log.warn("Recovered entities from a truncated extraction response");
+				}
+				return entities;
+			}
+		} catch (Exception e) {
+			log.error("Failed to map entity extraction response", e);
+		}
+		event.finish(false, false);
+		log.error("Entity extraction response contained no JSON object");
+		return new InsuranceEntities();
+	}
+
+	/**
+	 * Extracts entities for several documents with one request. Each document is tagged with its position and
+	 * the model answers with a JSON array keyed by that ID. Documents missing from an unparseable or incomplete
+	 * answer fall back to {@link #extractEntities(String)}.
+	 */
+	public List<InsuranceEntities> extractEntitiesBatch(List<String> documentTexts) {
+		if (documentTexts.size() == 1) {
+			return List.of(extractEntities(documentTexts.get(0)));
+		}
+
+		StringBuilder documents = new StringBuilder();
+		for (int i = 0; i < documentTexts.size(); i++) {
+			documents.append("### DOKUMENT ").append(i + 1).append(" ###\n")
+					.append(documentTexts.get(i).strip())
+					.append("\n### ENDE ").append(i + 1).append(" ###\n\n");
+		}
+
+		String extractionPrompt = """
+            Analysiere die folgenden %d deutschen Versicherungsdokumente und extrahiere alle Entitäten je Dokument.
+            Jedes Dokument steht zwischen "### DOKUMENT <id> ###" und "### ENDE <id> ###".
+           \s
+            %s
+            AUFGABE: Finde und kategorisiere alle relevanten Entitäten jedes Dokuments. Gib unter "documents" genau
+            ein Objekt pro Dokument mit dessen "id" zurück.
            \s
-            Gib NUR das JSON zurück, keine zusätzlichen Erklärungen!
-           \s""".formatted(documentText);
+            JSON FORMAT:
+            {
+              "documents": [
+                {
+                  "id": 1,
+                  "contract_numbers": ["VS-2024-123456"],
+                  "customer_ids": ["KD-123456"],
+                  "company_names": ["Allianz Versicherungs-AG"],
+                  "person_names": ["Herr Andreas Müller"],
+                  "amounts": ["EUR 1.250,00"],
+                  "dates": ["15.03.2024"],
+                  "addresses": ["Hauptstraße 15, 10115 Berlin"]
+                }
+              ]
+            }
+           \s
+            %s""".formatted(documentTexts.size(), documents, RECOGNITION_RULES);
+
+		InsuranceEntities[] results = new InsuranceEntities[documentTexts.size()];
+		try {
+			String response = callExtraction(extractionPrompt, documentTexts.size()).getContent();
+			parseBatchResponse(response, results);
+		} catch (Exception e) {
+			log.warn("Batch extraction of {} documents failed, falling back to single requests", documentTexts.size(), e);
+		}
 
-		String response = callOpenAI(extractionPrompt);
+		int fallbacks = 0;
+		for (int i = 0; i < results.length; i++) {
+			if (results[i] == null) {
+				results[i] = extractEntities(documentTexts.get(i));
+				fallbacks++;
+			}
+		}
+		if (fallbacks > 0) {
+			log.warn("Batch extraction fell back to single requests for {}/{} documents", fallbacks, results.length);
+		}
+		return Arrays.asList(results);
+	}
+
+	/**
+	 * Fills the results from the documents of a batch answer. Documents cut off by the token limit are left out,
+	 * so they go through a single request instead of keeping half of their entities.
+	 */
+	private void parseBatchResponse(String response, InsuranceEntities[] results) {
+		ExtractionParseEvent event = ExtractionParseEvent.start(response);
+		TolerantJsonParser.Result parsed = jsonParser.parse(response);
+		JsonNode root = parsed.getRoot();
+		// JSON mode answers with an object; a bare array is still accepted
+		JsonNode documents = root != null && root.isObject() ? root.path("documents") : root;
+		if (documents == null || !documents.isArray()) {
+			event.finish(false, false);
+			log.error("Batch entity extraction response contained no document array");
+			return;
+		}
 
 		try {
-			return objectMapper.readValue(response, InsuranceEntities.class);
+			for (JsonNode element : documents) {
+				int id = element.path("id").asInt(-1);
+				if (id >= 1 && id <= results.length && results[id - 1] == null && !parsed.isTruncated(element)) {
+					results[id - 1] = objectMapper.treeToValue(element, InsuranceEntities.class);
+				}
+			}
+			event.finish(parsed.isComplete(), !parsed.isComplete());
 		} catch (Exception e) {
-			log.error("Failed to parse entity extraction response", e);
-			return new InsuranceEntities();
+			event.finish(false, false);
+			log.error("Failed to map batch entity extraction response", e);
 		}
 	}
 
-	public String generateWithPersonality(DocumentType docType, WritingStyle style, InsuranceCompanyType companyType) {
+	public GenerationResult generateWithPersonality(DocumentType docType, WritingStyle style, InsuranceCompanyType companyType) {
 		String personalityPrompt = """
             Generiere ein %s auf Deutsch mit folgenden Charakteristika:
            \s
@@ -327,7 +468,7 @@ public class InsuranceDocumentGenerationService {
 				getDocumentSpecificRequirements(docType)
 		);
 
-		return callOpenAI(personalityPrompt);
+		return callOpenAI(CallKind.PERSONALITY, personalityPrompt, 1).get(0);
 	}
 
 	private String getDocumentSpecificRequirements(DocumentType docType) {
@@ -405,7 +546,7 @@ public class InsuranceDocumentGenerationService {
 		return personalities[new Random().nextInt(personalities.length)];
 	}
 
-	public String generateComplexDocument() {
+	public List<GenerationResult> generateComplexDocument(int choices) {
 		String complexPrompt = """
             Generiere ein KOMPLEXES Versicherungsdokument mit MEHREREN Verträgen und Beteiligten.
            \s
@@ -425,10 +566,10 @@ public class InsuranceDocumentGenerationService {
            \s
             Erstelle ein realistisches B2B-Szenario!
            \s""";
-		return callOpenAI(complexPrompt);
+		return callOpenAI(CallKind.COMPLEX, complexPrompt, choices);
 	}
 
-	public String generateEdgeCaseDocument() {
+	public List<GenerationResult> generateEdgeCaseDocument(int choices) {
 		String edgeCasePrompt = """
             Generiere ein Versicherungsdokument mit SCHWIERIGEN Entity-Erkennungsmustern.
             
@@ -445,10 +586,10 @@ public class InsuranceDocumentGenerationService {
             
             Erstelle ein Document das NER-Modelle herausfordert!
             """;
-		return callOpenAI(edgeCasePrompt);
+		return callOpenAI(CallKind.EDGE_CASE, edgeCasePrompt, choices);
 	}
 
-	public String generateMultiLanguageDocument() {
+	public List<GenerationResult> generateMultiLanguageDocument(int choices) {
 		String multiLangPrompt = """
             Generiere ein deutsches Versicherungsdokument mit INTERNATIONALEN Elementen.
             
@@ -465,28 +606,149 @@ public class InsuranceDocumentGenerationService {
             
             Bleibe authentisch deutsch mit realistischen internationalen Touches!
             """;
-		return callOpenAI(multiLangPrompt);
+		return callOpenAI(CallKind.MULTILINGUAL, multiLangPrompt, choices);
+	}
+
+	/**
+	 * Sends one prompt and returns {@code choices} candidate completions, using the chat API's {@code n}
+	 * parameter so the prompt is only sent and billed once.
+	 */
+	private List<GenerationResult> callOpenAI(CallKind kind, String userPrompt, int choices) {
+		OpenAiRoutingProperties.Route route = routing.route(kind);
+		return callOpenAI(kind, SYSTEM_PROMPT, userPrompt, options(route)
+				.maxTokens(route.getMaxTokens())
+				.N(choices > 1 ? choices : null)
+				.build(), route.getTimeout());
+	}
+
+	/**
+	 * Extraction request: short system prompt and JSON mode, so the answer is a single JSON object and carries
+	 * none of the generation instructions. The route's token limit and timeout are per document, since the answer
+	 * and the time to write it grow with the batch.
+	 */
+	private GenerationResult callExtraction(String userPrompt, int documents) {
+		OpenAiRoutingProperties.Route route = routing.route(CallKind.EXTRACTION);
+		Duration timeout = route.getTimeout() != null ? route.getTimeout().multipliedBy(documents) : null;
+		return callOpenAI(CallKind.EXTRACTION, EXTRACTION_SYSTEM_PROMPT, userPrompt, options(route)
+				.maxTokens(route.getMaxTokens() * documents)
+				.responseFormat(ResponseFormat.builder().type(ResponseFormat.Type.JSON_OBJECT).build())
+				.build(), timeout).get(0);
+	}
+
+	private OpenAiChatOptions.Builder options(OpenAiRoutingProperties.Route route) {
+		return OpenAiChatOptions.builder()
+				.model(route.getModel() != null ? route.getModel() : openAiChatModel.getDefaultOptions().getModel())
+				.temperature(route.getTemperature());
 	}
 
-	private String callOpenAI(String userPrompt) {
+	private List<GenerationResult> callOpenAI(CallKind kind, String systemPrompt, String userPrompt, OpenAiChatOptions options,
+			Duration timeout) {
+		try {
+			concurrencyLimiter.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while waiting for an API slot", e);
+		}
+
+		String callKind = kind.getKey();
+		long started = 0;
+		// nanoTime may be zero or negative, so a flag rather than started > 0 marks a call that was sent
+		boolean sent = false;
+		boolean success = false;
+		// A call given up on at its timeout that may still be running
+		CompletableFuture<ChatResponse> abandoned = null;
+		long promptTokens = 0;
+		long completionTokens = 0;
+		ApiCallEvent event = null;
 		try {
-			ChatResponse response = openAiChatModel.call(
-					new Prompt(List.of(
-							new SystemMessage(SYSTEM_PROMPT),
-							new UserMessage(userPrompt)
-					),
-							OpenAiChatOptions.builder()
-									.model(OpenAiApi.ChatModel.GPT_4_1_NANO)
-									.temperature(0.8)
-									.maxTokens(800)
-									.build())
-			);
-
-			return response.getResult().getOutput().getText();
+			rateLimiter.acquire();
+			started = System.nanoTime();
+			sent = true;
+			event = ApiCallEvent.start(callKind, options.getModel(), systemPrompt.length() + userPrompt.length());
+			ChatResponse response = call(new Prompt(List.of(
+					new SystemMessage(systemPrompt),
+					new UserMessage(userPrompt)
+			), options), timeout);
+
+			Usage usage = response.getMetadata().getUsage();
+			if (usage != null) {
+				promptTokens = usage.getPromptTokens() != null ? usage.getPromptTokens() : 0;
+				completionTokens = usage.getCompletionTokens() != null ? usage.getCompletionTokens() : 0;
+			}
+			List<GenerationResult> results = new ArrayList<>(response.getResults().size());
+			for (Generation generation : response.getResults()) {
+				results.add(new GenerationResult(generation.getOutput().getText(), generation.getMetadata().getFinishReason()));
+			}
+			if (results.isEmpty()) {
+				throw new IllegalStateException("Response contained no choices");
+			}
+			event.usage(promptTokens, completionTokens);
+			event.finish(results.get(0).getContent(), results.get(0).getFinishReason());
+			success = true;
+			return results;
 
 		} catch (Exception e) {
+			if (event != null) {
+				event.finish(null, "error");
+			}
+			concurrencyLimiter.onCallFailed(e);
+			if (e instanceof CallTimeoutException timedOut) {
+				abandoned = timedOut.call;
+			}
 			log.error("OpenAI API call failed", e);
 			throw new RuntimeException("Failed to generate document", e);
+		} finally {
+			// Waiting for the rate limiter is not latency
+			long latency = sent ? System.nanoTime() - started : 0;
+			if (abandoned != null) {
+				// The request still holds its slot until it really ends, and how long it took is a latency signal
+				long sentAt = started;
+				abandoned.whenComplete((response, failure) ->
+						concurrencyLimiter.release(callKind, System.nanoTime() - sentAt, false, true));
+			} else {
+				concurrencyLimiter.release(callKind, latency, success, false);
+			}
+			if (sent) {
+				callMetrics.record(callKind, options.getModel(), latency, success, promptTokens, completionTokens);
+			}
+		}
+	}
+
+	/**
+	 * Runs the call on its own virtual thread when the route has a timeout, since the chat model only knows the
+	 * HTTP client's timeouts, which are shared by every kind of call. An expired call is interrupted, which stops
+	 * its retries but may not abort a request already on the wire, so the caller gets the call to wait for.
+	 */
+	private ChatResponse call(Prompt prompt, Duration timeout) throws Exception {
+		if (timeout == null || !timeout.isPositive()) {
+			return openAiChatModel.call(prompt);
+		}
+
+		CompletableFuture<ChatResponse> call = new CompletableFuture<>();
+		Thread thread = Thread.ofVirtual().name("openai-call").start(() -> {
+			try {
+				call.complete(openAiChatModel.call(prompt));
+			} catch (Throwable e) {
+				call.completeExceptionally(e);
+			}
+		});
+		try {
+			return call.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			thread.interrupt();
+			throw new CallTimeoutException(timeout, call);
+		} catch (ExecutionException e) {
+			throw e.getCause() instanceof Exception cause ? cause : e;
+		}
+	}
+
+	@SuppressWarnings("serial") // Never serialized
+	private static final class CallTimeoutException extends TimeoutException {
+		private final transient CompletableFuture<ChatResponse> call;
+
+		CallTimeoutException(Duration timeout, CompletableFuture<ChatResponse> call) {
+			super("No answer within " + timeout);
+			this.call = call;
 		}
 	}
 }
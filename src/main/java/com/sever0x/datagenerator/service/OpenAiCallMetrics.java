@@ -0,0 +1,56 @@
+package com.sever0x.datagenerator.service;
+
+import com.sever0x.datagenerator.job.JobScoped;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and token usage of OpenAI calls per call kind and model, for tuning the routing table. Totals are kept
+ * per run and logged when the run ends; the figures of each single call are on the
+ * {@code com.sever0x.datagenerator.ApiCall} JFR event.
+ */
+@Component
+@JobScoped
+public class OpenAiCallMetrics {
+
+	private final Map<String, CallTotals> totals = new ConcurrentHashMap<>();
+
+	public void record(String callKind, String model, long latencyNanos, boolean success, long promptTokens, long completionTokens) {
+		CallTotals call = totals.computeIfAbsent(callKind + "/" + model, key -> new CallTotals());
+		call.calls.increment();
+		if (!success) {
+			call.errors.increment();
+		}
+		call.latencyNanos.add(latencyNanos);
+		call.promptTokens.add(promptTokens);
+		call.completionTokens.add(completionTokens);
+	}
+
+	/**
+	 * One line per call kind and model, keyed {@code kind/model}.
+	 */
+	public Map<String, String> getSummary() {
+		Map<String, String> summary = new TreeMap<>();
+		totals.forEach((key, call) -> {
+			long calls = call.calls.sum();
+			summary.put(key, calls + " calls, " + call.errors.sum() + " failed, "
+					+ TimeUnit.NANOSECONDS.toMillis(call.latencyNanos.sum() / Math.max(1, calls)) + "ms average, "
+					+ call.promptTokens.sum() + " prompt and " + call.completionTokens.sum() + " completion tokens");
+		});
+		return summary;
+	}
+
+	private static final class CallTotals {
+		private final LongAdder calls = new LongAdder();
+		private final LongAdder errors = new LongAdder();
+		// Retries included
+		private final LongAdder latencyNanos = new LongAdder();
+		private final LongAdder promptTokens = new LongAdder();
+		private final LongAdder completionTokens = new LongAdder();
+	}
+}
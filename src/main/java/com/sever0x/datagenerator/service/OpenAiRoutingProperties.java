@@ -0,0 +1,52 @@
+package com.sever0x.datagenerator.service;
+
+import com.sever0x.datagenerator.types.CallKind;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Model and sampling options per {@link CallKind}, bound from {@code dataset.openai}. A route only needs the
+ * settings that differ from {@code defaults}; a route without a model uses
+ * {@code spring.ai.openai.chat.options.model}.
+ */
+@Data
+@Component
+@ConfigurationProperties("dataset.openai")
+public class OpenAiRoutingProperties {
+
+	private Route defaults = new Route(null, 0.8, 800, Duration.ofSeconds(120));
+
+	private Map<CallKind, Route> routes = new EnumMap<>(CallKind.class);
+
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class Route {
+		private String model;
+		private Double temperature;
+		// For extraction, the limit per document in a batch
+		private Integer maxTokens;
+		// Zero or unset waits for the HTTP client's own timeouts. For extraction, the limit per document in a batch
+		private Duration timeout;
+	}
+
+	/**
+	 * The route of a call kind with unset settings taken from {@code defaults}.
+	 */
+	public Route route(CallKind kind) {
+		Route route = routes.get(kind);
+		if (route == null) return defaults;
+		return new Route(
+				route.getModel() != null ? route.getModel() : defaults.getModel(),
+				route.getTemperature() != null ? route.getTemperature() : defaults.getTemperature(),
+				route.getMaxTokens() != null ? route.getMaxTokens() : defaults.getMaxTokens(),
+				route.getTimeout() != null ? route.getTimeout() : defaults.getTimeout());
+	}
+}
@@ -0,0 +1,147 @@
+package com.sever0x.datagenerator.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonEOFException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ContainerNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Reads model answers that should be JSON but may be wrapped in a markdown fence, framed by prose or cut off at
+ * the token limit. Parsing starts at the first {@code {} or {@code [}, stops once that value is closed, and on a
+ * truncated answer keeps every value read completely so far. Containers that were still open at the cut are
+ * reported, so callers can tell a partial object from a complete one.
+ */
+class TolerantJsonParser {
+
+	private final JsonFactory factory;
+	private final JsonNodeFactory nodes;
+
+	TolerantJsonParser(ObjectMapper objectMapper) {
+		this.factory = objectMapper.getFactory();
+		this.nodes = objectMapper.getNodeFactory();
+	}
+
+	@Getter
+	@AllArgsConstructor
+	static final class Result {
+		// Null when the answer contains no JSON value at all
+		private final JsonNode root;
+		private final boolean complete;
+		private final Set<JsonNode> truncated;
+		// The text ran out inside the value, as opposed to malformed input such as a bracket in prose
+		private final boolean cut;
+
+		boolean isTruncated(JsonNode node) {
+			return truncated.contains(node);
+		}
+	}
+
+	Result parse(String text) {
+		Result best = new Result(null, false, Set.of(), false);
+		// Prose may contain brackets of its own, so try both kinds of opening bracket
+		for (int start : valueStarts(text)) {
+			Result result = parseFrom(text.substring(start));
+			// Later starts lie inside a value that was cut off, so they are parts of it, not values of their own
+			if (result.isComplete() || result.isCut()) {
+				return result;
+			}
+			// Otherwise the earliest value that yielded anything
+			if (best.getRoot() == null || best.getRoot().isEmpty() && result.getRoot() != null) {
+				best = result;
+			}
+		}
+		return best;
+	}
+
+	private Result parseFrom(String text) {
+		Deque<ContainerNode<?>> open = new ArrayDeque<>();
+		JsonNode root = null;
+		String field = null;
+		boolean cut = false;
+		try (JsonParser parser = factory.createParser(text)) {
+			JsonToken token;
+			while ((token = parser.nextToken()) != null) {
+				switch (token) {
+					case FIELD_NAME -> {
+						field = parser.currentName();
+						continue;
+					}
+					case START_OBJECT, START_ARRAY -> {
+						ContainerNode<?> container = token == JsonToken.START_OBJECT ? nodes.objectNode() : nodes.arrayNode();
+						if (open.isEmpty()) {
+							root = container;
+						} else {
+							attach(open.peek(), field, container);
+						}
+						open.push(container);
+					}
+					case END_OBJECT, END_ARRAY -> {
+						open.pop();
+						if (open.isEmpty()) {
+							// Anything after the root value is prose
+							return new Result(root, true, Set.of(), false);
+						}
+					}
+					default -> attach(open.peek(), field, scalar(parser, token));
+				}
+				field = null;
+			}
+		} catch (JsonEOFException e) {
+			cut = true;
+		} catch (IOException e) {
+			// Truncated or malformed; keep what was read completely
+		}
+
+		Set<JsonNode> truncated = Collections.newSetFromMap(new IdentityHashMap<>());
+		truncated.addAll(open);
+		return new Result(root, false, truncated, cut);
+	}
+
+	private JsonNode scalar(JsonParser parser, JsonToken token) throws IOException {
+		return switch (token) {
+			case VALUE_STRING -> nodes.textNode(parser.getText());
+			case VALUE_NUMBER_INT -> nodes.numberNode(parser.getLongValue());
+			case VALUE_NUMBER_FLOAT -> nodes.numberNode(parser.getDecimalValue());
+			case VALUE_TRUE -> nodes.booleanNode(true);
+			case VALUE_FALSE -> nodes.booleanNode(false);
+			default -> nodes.nullNode();
+		};
+	}
+
+	private static void attach(ContainerNode<?> parent, String field, JsonNode value) {
+		if (parent instanceof ObjectNode object) {
+			if (field != null) {
+				object.set(field, value);
+			}
+		} else {
+			((ArrayNode) parent).add(value);
+		}
+	}
+
+	private static int[] valueStarts(String text) {
+		if (text == null) return new int[0];
+		// Inside a fence, skip the prose before it
+		int fence = text.indexOf("```");
+		int from = fence >= 0 ? text.indexOf('\n', fence) + 1 : 0;
+		return IntStream.of(text.indexOf('{', from), text.indexOf('[', from))
+				.filter(start -> start >= 0)
+				.sorted()
+				.toArray();
+	}
+}
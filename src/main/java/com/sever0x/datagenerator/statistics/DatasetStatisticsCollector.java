@@ -0,0 +1,213 @@
+package com.sever0x.datagenerator.statistics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sever0x.datagenerator.annotation.EntityLabels;
+import com.sever0x.datagenerator.data.AnnotatedDocument;
+import com.sever0x.datagenerator.data.InsuranceEntities;
+import com.sever0x.datagenerator.job.JobScoped;
+import com.sever0x.datagenerator.types.DocumentType;
+import com.sever0x.datagenerator.types.EntityType;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dataset statistics maintained incrementally as documents complete, in fixed memory: entity counts per type,
+ * HyperLogLog distinct estimates for IDs and names, token and sentence length histograms and the label
+ * distribution per split. A snapshot is written to {@code statistics/running_stats.json} periodically and
+ * when the run finishes.
+ */
+@Slf4j
+@Component
+@JobScoped
+public class DatasetStatisticsCollector {
+
+	private static final String STATS_FILE = "running_stats.json";
+
+	@Value("${dataset.statistics.flush-interval-seconds:30}")
+	private long flushIntervalSeconds;
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	private long documents;
+	private final Map<DocumentType, Long> documentTypeCounts = new EnumMap<>(DocumentType.class);
+	private final long[] entityCounts = new long[EntityType.values().length];
+	private final HyperLogLog distinctContractNumbers = new HyperLogLog();
+	private final HyperLogLog distinctCustomerIds = new HyperLogLog();
+	private final HyperLogLog distinctPersonNames = new HyperLogLog();
+	private final HyperLogLog distinctCompanyNames = new HyperLogLog();
+	private final Histogram tokenLengths = new Histogram(40);
+	private final Histogram sentenceLengths = new Histogram(120);
+	private final Histogram documentLengths = new Histogram(2000);
+	private final Map<String, long[]> splitLabelCounts = new TreeMap<>();
+
+	private ScheduledExecutorService scheduler;
+	private ScheduledFuture<?> flushTask;
+	private Path statsPath;
+
+	/**
+	 * Clears previous state and starts periodic snapshots into {@code statisticsDir}.
+	 */
+	public synchronized void start(Path statisticsDir) {
+		stopFlushing();
+		reset();
+		statsPath = statisticsDir.resolve(STATS_FILE);
+
+		if (flushIntervalSeconds > 0) {
+			if (scheduler == null) {
+				scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+					Thread thread = new Thread(runnable, "statistics-flush");
+					thread.setDaemon(true);
+					return thread;
+				});
+			}
+			flushTask = scheduler.scheduleAtFixedRate(this::flush, flushIntervalSeconds, flushIntervalSeconds, TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * Stops periodic snapshots and writes the final one.
+	 */
+	public synchronized void finish() {
+		stopFlushing();
+		flush();
+	}
+
+	public synchronized void recordDocument(DocumentType docType, InsuranceEntities entities, AnnotatedDocument annotated) {
+		documents++;
+		documentTypeCounts.merge(docType, 1L, Long::sum);
+
+		if (entities != null) {
+			// Partial extraction answers can leave lists or elements null
+			for (EntityType type : EntityType.values()) {
+				for (String value : type.valuesOf(entities)) {
+					if (value == null) continue;
+					entityCounts[type.ordinal()]++;
+					switch (type) {
+						case CONTRACT_NUMBER -> distinctContractNumbers.add(value);
+						case CUSTOMER_ID -> distinctCustomerIds.add(value);
+						case PERSON_NAME -> distinctPersonNames.add(value);
+						case COMPANY_NAME -> distinctCompanyNames.add(value);
+						default -> {
+						}
+					}
+				}
+			}
+		}
+
+		int[] tokenStarts = annotated.getTokenStarts();
+		int[] tokenEnds = annotated.getTokenEnds();
+		for (int i = 0; i < tokenStarts.length; i++) {
+			tokenLengths.record(tokenEnds[i] - tokenStarts[i]);
+		}
+		for (int s = 0; s < annotated.getSentenceCount(); s++) {
+			sentenceLengths.record(annotated.sentenceEnd(s) - annotated.getSentenceStarts()[s]);
+		}
+		documentLengths.record(annotated.getTokenCount());
+	}
+
+	public synchronized void recordSplit(String split, int[] labelCounts) {
+		if (labelCounts == null) return;
+		long[] counts = splitLabelCounts.computeIfAbsent(split, s -> new long[EntityLabels.LABEL_COUNT]);
+		for (int i = 0; i < labelCounts.length; i++) {
+			counts[i] += labelCounts[i];
+		}
+	}
+
+	public synchronized Map<String, Object> snapshot() {
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("snapshot_date", LocalDateTime.now().toString());
+		stats.put("documents", documents);
+
+		Map<String, Long> types = new LinkedHashMap<>();
+		documentTypeCounts.forEach((type, count) -> types.put(type.name(), count));
+		stats.put("document_type_counts", types);
+
+		Map<String, Long> entities = new LinkedHashMap<>();
+		for (EntityType type : EntityType.values()) {
+			entities.put(type.name(), entityCounts[type.ordinal()]);
+		}
+		stats.put("entity_counts", entities);
+
+		Map<String, Long> distinct = new LinkedHashMap<>();
+		distinct.put("CONTRACT_NUMBER", distinctContractNumbers.estimate());
+		distinct.put("CUSTOMER_ID", distinctCustomerIds.estimate());
+		distinct.put("PERSON_NAME", distinctPersonNames.estimate());
+		distinct.put("COMPANY_NAME", distinctCompanyNames.estimate());
+		stats.put("distinct_estimates", distinct);
+
+		stats.put("token_length_chars", tokenLengths.toMap());
+		stats.put("sentence_length_tokens", sentenceLengths.toMap());
+		stats.put("document_length_tokens", documentLengths.toMap());
+
+		Map<String, Map<String, Long>> labels = new LinkedHashMap<>();
+		splitLabelCounts.forEach((split, counts) -> {
+			Map<String, Long> named = new LinkedHashMap<>();
+			for (int i = 0; i < counts.length; i++) {
+				if (counts[i] > 0) {
+					named.put(EntityLabels.toBioes((byte) i), counts[i]);
+				}
+			}
+			labels.put(split, named);
+		});
+		stats.put("label_distribution", labels);
+		return stats;
+	}
+
+	private void flush() {
+		Path target = statsPath;
+		if (target == null) return;
+
+		try {
+			Path tmp = target.resolveSibling(STATS_FILE + ".tmp");
+			mapper.writerWithDefaultPrettyPrinter().writeValue(tmp.toFile(), snapshot());
+			Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			log.warn("Failed to write running statistics to {}", target, e);
+		}
+	}
+
+	private void stopFlushing() {
+		if (flushTask != null) {
+			flushTask.cancel(false);
+			flushTask = null;
+		}
+	}
+
+	private void reset() {
+		documents = 0;
+		documentTypeCounts.clear();
+		Arrays.fill(entityCounts, 0);
+		distinctContractNumbers.clear();
+		distinctCustomerIds.clear();
+		distinctPersonNames.clear();
+		distinctCompanyNames.clear();
+		tokenLengths.clear();
+		sentenceLengths.clear();
+		documentLengths.clear();
+		splitLabelCounts.clear();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package com.sever0x.datagenerator.statistics;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Histogram over non-negative integers with one bucket per value up to {@code maxValue} and an overflow
+ * bucket above it. Memory is fixed at construction. Not thread-safe.
+ */
+public class Histogram {
+
+	private final long[] buckets;
+	private long count;
+	private long sum;
+
+	public Histogram(int maxValue) {
+		this.buckets = new long[maxValue + 2];
+	}
+
+	public void record(int value) {
+		buckets[Math.min(Math.max(value, 0), buckets.length - 1)]++;
+		count++;
+		sum += value;
+	}
+
+	public void clear() {
+		Arrays.fill(buckets, 0);
+		count = 0;
+		sum = 0;
+	}
+
+	public Map<String, Object> toMap() {
+		Map<String, Object> summary = new LinkedHashMap<>();
+		summary.put("count", count);
+		summary.put("mean", count == 0 ? 0 : (double) sum / count);
+		summary.put("p50", percentile(0.50));
+		summary.put("p90", percentile(0.90));
+		summary.put("p99", percentile(0.99));
+
+		Map<String, Long> nonEmpty = new LinkedHashMap<>();
+		int overflow = buckets.length - 1;
+		for (int i = 0; i < buckets.length; i++) {
+			if (buckets[i] > 0) {
+				nonEmpty.put(i == overflow ? ">" + (overflow - 1) : String.valueOf(i), buckets[i]);
+			}
+		}
+		summary.put("buckets", nonEmpty);
+		return summary;
+	}
+
+	private int percentile(double quantile) {
+		long rank = (long) Math.ceil(quantile * count);
+		long seen = 0;
+		for (int i = 0; i < buckets.length; i++) {
+			seen += buckets[i];
+			if (seen >= rank && seen > 0) {
+				return i;
+			}
+		}
+		return 0;
+	}
+}
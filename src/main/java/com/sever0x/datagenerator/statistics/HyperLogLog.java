@@ -0,0 +1,68 @@
+package com.sever0x.datagenerator.statistics;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size HyperLogLog distinct-count sketch over strings. With the default precision of 12 it uses 4 KiB
+ * and estimates cardinalities with about 1.6% standard error. Not thread-safe.
+ */
+public class HyperLogLog {
+
+	private final int precision;
+	private final byte[] registers;
+
+	public HyperLogLog() {
+		this(12);
+	}
+
+	public HyperLogLog(int precision) {
+		this.precision = precision;
+		this.registers = new byte[1 << precision];
+	}
+
+	public void add(CharSequence value) {
+		long hash = hash(value);
+		int index = (int) (hash >>> (64 - precision));
+		int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+		if (rank > registers[index]) {
+			registers[index] = (byte) rank;
+		}
+	}
+
+	public long estimate() {
+		int m = registers.length;
+		double sum = 0;
+		int zeros = 0;
+		for (byte register : registers) {
+			sum += 1.0 / (1L << register);
+			if (register == 0) zeros++;
+		}
+
+		double alpha = 0.7213 / (1 + 1.079 / m);
+		double estimate = alpha * m * m / sum;
+		if (estimate <= 2.5 * m && zeros > 0) {
+			// Linear counting is more accurate for small cardinalities
+			estimate = m * Math.log((double) m / zeros);
+		}
+		return Math.round(estimate);
+	}
+
+	public void clear() {
+		Arrays.fill(registers, (byte) 0);
+	}
+
+	private static long hash(CharSequence value) {
+		// FNV-1a over UTF-16 units followed by the murmur3 finalizer for well-mixed high bits
+		long h = 0xcbf29ce484222325L;
+		for (int i = 0; i < value.length(); i++) {
+			h ^= value.charAt(i);
+			h *= 0x100000001b3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
@@ -0,0 +1,45 @@
+package com.sever0x.datagenerator.storage;
+
+import com.sever0x.datagenerator.types.DocumentType;
+import lombok.Getter;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The files kept per document, with the directory and file name each has in the per-file layouts.
+ */
+@Getter
+public enum DocumentKind {
+	RAW("raw_documents", "doc_%1$04d_%2$s.txt", "doc_(?<id>\\d+)_(?<type>[a-z_]+)\\.txt"),
+	ENTITIES("entities", "doc_%1$04d.json", "doc_(?<id>\\d+)\\.json"),
+	ANNOTATED("annotated_data", "doc_%1$04d.conll", "doc_(?<id>\\d+)\\.conll"),
+	// Copy of the raw text under by_type/<type>/
+	BY_TYPE("by_type", "%2$s_%1$04d.txt", "(?<type>[a-z_]+)_(?<id>\\d+)\\.txt");
+
+	private final String directory;
+	private final String nameFormat;
+	private final Pattern namePattern;
+	private final boolean typed;
+
+	DocumentKind(String directory, String nameFormat, String namePattern) {
+		this.directory = directory;
+		this.nameFormat = nameFormat;
+		this.namePattern = Pattern.compile(namePattern);
+		this.typed = namePattern.contains("(?<type>");
+	}
+
+	public String fileName(int documentId, DocumentType docType) {
+		return String.format(nameFormat, documentId, docType != null ? docType.name().toLowerCase() : "");
+	}
+
+	/**
+	 * Document ID and type from a file name of this kind, or {@code null} for any other file.
+	 */
+	public StoredDocument parse(String fileName, String location) {
+		Matcher matcher = namePattern.matcher(fileName);
+		if (!matcher.matches()) return null;
+		DocumentType docType = typed ? DocumentType.valueOf(matcher.group("type").toUpperCase()) : null;
+		return new StoredDocument(Integer.parseInt(matcher.group("id")), docType, location);
+	}
+}
@@ -0,0 +1,40 @@
+package com.sever0x.datagenerator.storage;
+
+import com.sever0x.datagenerator.types.DocumentType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * On-disk layout of the per-document files (raw text, entity sidecar, annotation). Selected with
+ * {@code dataset.storage.layout}; the store opened for a dataset directory is shared by all writer threads.
+ */
+public interface DocumentStore {
+
+	/**
+	 * Name used in {@code dataset.storage.layout}.
+	 */
+	String getLayout();
+
+	Documents open(Path datasetPath) throws IOException;
+
+	interface Documents extends Closeable {
+		/**
+		 * Stores one file of a document and returns the file it went to, or {@code null} if the layout keeps
+		 * no such file.
+		 */
+		Path write(DocumentKind kind, int documentId, DocumentType docType, String content) throws IOException;
+
+		/**
+		 * Reads one file of a document; {@code docType} is only needed for kinds that carry it in their name.
+		 */
+		String read(DocumentKind kind, int documentId, DocumentType docType) throws IOException;
+
+		/**
+		 * Documents stored with a file of this kind, in ID order.
+		 */
+		List<StoredDocument> list(DocumentKind kind) throws IOException;
+	}
+}
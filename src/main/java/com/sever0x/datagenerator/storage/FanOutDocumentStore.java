@@ -0,0 +1,31 @@
+package com.sever0x.datagenerator.storage;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Per-file layout spread over two levels of 256 hashed subdirectories, as in
+ * {@code raw_documents/3f/a2/doc_0042_claim_report.txt}, so no directory grows past a few hundred entries even
+ * for millions of documents.
+ */
+@Component
+public class FanOutDocumentStore extends PerFileDocumentStore {
+
+	@Override
+	public String getLayout() {
+		return "fanout";
+	}
+
+	@Override
+	Path directoryOf(Path kindDirectory, int documentId) {
+		// Consecutive IDs land in different directories
+		int hash = mix(documentId);
+		return kindDirectory.resolve(String.format("%02x", hash >>> 24)).resolve(String.format("%02x", (hash >>> 16) & 0xff));
+	}
+
+	private static int mix(int value) {
+		int h = value * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
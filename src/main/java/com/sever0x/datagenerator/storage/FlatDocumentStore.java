@@ -0,0 +1,22 @@
+package com.sever0x.datagenerator.storage;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * All files of a kind in one directory, as in {@code raw_documents/doc_0042_claim_report.txt}.
+ */
+@Component
+public class FlatDocumentStore extends PerFileDocumentStore {
+
+	@Override
+	public String getLayout() {
+		return "flat";
+	}
+
+	@Override
+	Path directoryOf(Path kindDirectory, int documentId) {
+		return kindDirectory;
+	}
+}
@@ -0,0 +1,75 @@
+package com.sever0x.datagenerator.storage;
+
+import com.sever0x.datagenerator.types.DocumentType;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * One file per document and kind. Subclasses decide the directory a file goes to below its kind's directory.
+ */
+abstract class PerFileDocumentStore implements DocumentStore {
+
+	/**
+	 * Directory below {@code kindDirectory} that holds the file.
+	 */
+	abstract Path directoryOf(Path kindDirectory, int documentId);
+
+	@Override
+	public Documents open(Path datasetPath) throws IOException {
+		for (DocumentKind kind : DocumentKind.values()) {
+			Files.createDirectories(datasetPath.resolve(kind.getDirectory()));
+		}
+
+		return new Documents() {
+			@Override
+			public Path write(DocumentKind kind, int documentId, DocumentType docType, String content) throws IOException {
+				Path file = pathOf(datasetPath, kind, documentId, docType);
+				Files.createDirectories(file.getParent());
+				Files.writeString(file, content, StandardCharsets.UTF_8);
+				return file;
+			}
+
+			@Override
+			public String read(DocumentKind kind, int documentId, DocumentType docType) throws IOException {
+				try (FileChannel channel = FileChannel.open(pathOf(datasetPath, kind, documentId, docType), StandardOpenOption.READ)) {
+					MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+					return StandardCharsets.UTF_8.decode(buffer).toString();
+				}
+			}
+
+			@Override
+			public List<StoredDocument> list(DocumentKind kind) throws IOException {
+				try (Stream<Path> files = Files.walk(datasetPath.resolve(kind.getDirectory()))) {
+					// Sorted by ID, not by name, so ordering holds past the zero padding
+					return files.filter(Files::isRegularFile)
+							.map(file -> kind.parse(file.getFileName().toString(), file.toString()))
+							.filter(Objects::nonNull)
+							.sorted(Comparator.comparingInt(StoredDocument::getDocumentId))
+							.toList();
+				}
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+	}
+
+	private Path pathOf(Path datasetPath, DocumentKind kind, int documentId, DocumentType docType) {
+		Path kindDirectory = datasetPath.resolve(kind.getDirectory());
+		if (kind == DocumentKind.BY_TYPE) {
+			kindDirectory = kindDirectory.resolve(docType.name().toLowerCase());
+		}
+		return directoryOf(kindDirectory, documentId).resolve(kind.fileName(documentId, docType));
+	}
+}
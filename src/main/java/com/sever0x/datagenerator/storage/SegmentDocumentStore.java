@@ -0,0 +1,267 @@
+package com.sever0x.datagenerator.storage;
+
+import com.sever0x.datagenerator.types.DocumentType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Documents appended to large segment files, {@code segments/<kind>/seg-00000.dat} and following, with one
+ * fixed-size index record per document ID in {@code segments/<kind>/index.bin}. A read looks up the record at
+ * {@code (id - 1) * 17} and reads the document from its segment, so random access costs two positional reads
+ * however many documents the dataset holds.
+ * <p>
+ * Each segment entry is the document ID and byte length followed by the UTF-8 text. Index records hold the segment number plus one (zero marks a missing document), the
+ * offset and length of the text and the document type. The {@code by_type} copies are not kept: the index
+ * records the type, and writes of {@link DocumentKind#BY_TYPE} are dropped while reads and listings of it are
+ * served from {@code raw}.
+ * <p>
+ * Rewriting a document, as reannotation does, overwrites its entry in place when the new text fits; the spare
+ * bytes become a free entry with document ID 0. A text that no longer fits is appended and its old entry is
+ * marked free, so only documents that grow leave unused bytes behind. Listings locate a document as
+ * {@code segments/<kind>#<id>}, which stays valid however often it is rewritten.
+ */
+@Component
+public class SegmentDocumentStore implements DocumentStore {
+
+	private static final int INDEX_RECORD = Integer.BYTES + Long.BYTES + Integer.BYTES + 1;
+	private static final int ENTRY_HEADER = Integer.BYTES + Integer.BYTES;
+	private static final DocumentType[] DOCUMENT_TYPES = DocumentType.values();
+
+	@Value("${dataset.storage.segment-size-mb:256}")
+	private long segmentSizeMb;
+
+	@Override
+	public String getLayout() {
+		return "segments";
+	}
+
+	@Override
+	public Documents open(Path datasetPath) throws IOException {
+		Path root = datasetPath.resolve("segments");
+		long segmentBytes = Math.max(1, segmentSizeMb) * 1024 * 1024;
+		Map<DocumentKind, KindSegments> kinds = new EnumMap<>(DocumentKind.class);
+		for (DocumentKind kind : DocumentKind.values()) {
+			if (kind != DocumentKind.BY_TYPE) {
+				kinds.put(kind, new KindSegments(root.resolve(kind.getDirectory()), segmentBytes));
+			}
+		}
+
+		return new Documents() {
+			@Override
+			public Path write(DocumentKind kind, int documentId, DocumentType docType, String content) throws IOException {
+				KindSegments segments = kinds.get(kind);
+				return segments != null ? segments.append(documentId, docType, content.getBytes(StandardCharsets.UTF_8)) : null;
+			}
+
+			@Override
+			public String read(DocumentKind kind, int documentId, DocumentType docType) throws IOException {
+				return kinds.get(kind == DocumentKind.BY_TYPE ? DocumentKind.RAW : kind).read(documentId);
+			}
+
+			@Override
+			public List<StoredDocument> list(DocumentKind kind) throws IOException {
+				return kinds.get(kind == DocumentKind.BY_TYPE ? DocumentKind.RAW : kind).list();
+			}
+
+			@Override
+			public void close() throws IOException {
+				for (KindSegments segments : kinds.values()) {
+					segments.close();
+				}
+			}
+		};
+	}
+
+	/**
+	 * Segments and index of one kind. Appends are serialized; reads use positional I/O and run concurrently.
+	 */
+	private static final class KindSegments {
+		private final Path directory;
+		private final long segmentBytes;
+		private final FileChannel index;
+		private final Map<Integer, FileChannel> readers = new ConcurrentHashMap<>();
+
+		private int segment;
+		private FileChannel writer;
+		private long writePosition;
+
+		KindSegments(Path directory, long segmentBytes) throws IOException {
+			this.directory = directory;
+			this.segmentBytes = segmentBytes;
+			Files.createDirectories(directory);
+			index = FileChannel.open(directory.resolve("index.bin"), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+			// An appended dataset continues in its last segment
+			try (Stream<Path> files = Files.list(directory)) {
+				segment = files.map(file -> file.getFileName().toString())
+						.filter(name -> name.matches("seg-\\d+\\.dat"))
+						.mapToInt(name -> Integer.parseInt(name.substring(4, name.length() - 4)))
+						.max()
+						.orElse(0);
+			}
+			openWriter();
+		}
+
+		synchronized Path append(int documentId, DocumentType docType, byte[] content) throws IOException {
+			long recordPosition = (long) (documentId - 1) * INDEX_RECORD;
+			ByteBuffer previous = ByteBuffer.allocate(INDEX_RECORD);
+			int previousSegment = readFully(index, previous, recordPosition) ? previous.getInt(0) - 1 : -1;
+			if (previousSegment >= 0) {
+				long previousOffset = previous.getLong(Integer.BYTES);
+				int spare = previous.getInt(Integer.BYTES + Long.BYTES) - content.length;
+				// The spare bytes need room for a free entry header of their own
+				if (spare == 0 || spare >= ENTRY_HEADER) {
+					ByteBuffer entry = ByteBuffer.allocate(ENTRY_HEADER + content.length + (spare > 0 ? ENTRY_HEADER : 0));
+					entry.putInt(documentId).putInt(content.length).put(content);
+					if (spare > 0) {
+						entry.putInt(0).putInt(spare - ENTRY_HEADER);
+					}
+					writeEntry(previousSegment, entry.flip(), previousOffset - ENTRY_HEADER);
+					writeRecord(recordPosition, previousSegment, previousOffset, content.length, docType);
+					return segmentPath(previousSegment);
+				}
+				writeEntry(previousSegment, ByteBuffer.allocate(Integer.BYTES).putInt(0).flip(), previousOffset - ENTRY_HEADER);
+			}
+
+			if (writePosition > 0 && writePosition + ENTRY_HEADER + content.length > segmentBytes) {
+				writer.close();
+				segment++;
+				openWriter();
+			}
+
+			ByteBuffer entry = ByteBuffer.allocate(ENTRY_HEADER + content.length);
+			entry.putInt(documentId).putInt(content.length).put(content).flip();
+			long offset = writePosition + ENTRY_HEADER;
+			writeFully(writer, entry, writePosition);
+			writePosition += ENTRY_HEADER + content.length;
+
+			writeRecord(recordPosition, segment, offset, content.length, docType);
+			return segmentPath(segment);
+		}
+
+		String read(int documentId) throws IOException {
+			ByteBuffer record = ByteBuffer.allocate(INDEX_RECORD);
+			// Past the end of the index or a zero record: the document was never written
+			boolean indexed = readFully(index, record, (long) (documentId - 1) * INDEX_RECORD);
+			int segmentNumber = record.getInt(0) - 1;
+			if (!indexed || segmentNumber < 0) {
+				throw new NoSuchFileException(directory + " has no document " + documentId);
+			}
+
+			ByteBuffer content = ByteBuffer.allocate(record.getInt(Integer.BYTES + Long.BYTES));
+			if (!readFully(reader(segmentNumber), content, record.getLong(Integer.BYTES)) && content.capacity() > 0) {
+				throw new IOException("Document " + documentId + " is missing from " + segmentPath(segmentNumber));
+			}
+			return new String(content.array(), StandardCharsets.UTF_8);
+		}
+
+		List<StoredDocument> list() throws IOException {
+			List<StoredDocument> documents = new ArrayList<>();
+			ByteBuffer records = ByteBuffer.allocate(INDEX_RECORD * 4096);
+			long size = index.size();
+			for (long position = 0; position < size; position += records.capacity()) {
+				records.clear();
+				if (size - position < records.capacity()) {
+					records.limit((int) (size - position));
+				}
+				readFully(index, records, position);
+				for (int r = 0; r + INDEX_RECORD <= records.limit(); r += INDEX_RECORD) {
+					int segmentNumber = records.getInt(r) - 1;
+					if (segmentNumber < 0) continue;
+					int documentId = (int) ((position + r) / INDEX_RECORD) + 1;
+					int type = records.get(r + INDEX_RECORD - 1);
+					documents.add(new StoredDocument(documentId, type > 0 ? DOCUMENT_TYPES[type - 1] : null, directory + "#" + documentId));
+				}
+			}
+			return documents;
+		}
+
+		synchronized void close() throws IOException {
+			writer.close();
+			index.close();
+			for (FileChannel reader : readers.values()) {
+				reader.close();
+			}
+		}
+
+		private void writeRecord(long recordPosition, int segmentNumber, long offset, int length, DocumentType docType) throws IOException {
+			ByteBuffer record = ByteBuffer.allocate(INDEX_RECORD);
+			record.putInt(segmentNumber + 1).putLong(offset).putInt(length)
+					.put((byte) (docType != null ? docType.ordinal() + 1 : 0))
+					.flip();
+			writeFully(index, record, recordPosition);
+		}
+
+		/**
+		 * Writes into an existing entry, which may lie in a segment that is no longer written to.
+		 */
+		private void writeEntry(int segmentNumber, ByteBuffer entry, long position) throws IOException {
+			if (segmentNumber == segment) {
+				writeFully(writer, entry, position);
+				return;
+			}
+			try (FileChannel channel = FileChannel.open(segmentPath(segmentNumber), StandardOpenOption.WRITE)) {
+				writeFully(channel, entry, position);
+			}
+		}
+
+		private void openWriter() throws IOException {
+			writer = FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			writePosition = writer.size();
+		}
+
+		private FileChannel reader(int segmentNumber) throws IOException {
+			FileChannel reader = readers.get(segmentNumber);
+			if (reader == null) {
+				FileChannel opened = FileChannel.open(segmentPath(segmentNumber), StandardOpenOption.READ);
+				reader = readers.putIfAbsent(segmentNumber, opened);
+				if (reader == null) {
+					reader = opened;
+				} else {
+					opened.close();
+				}
+			}
+			return reader;
+		}
+
+		private Path segmentPath(int segmentNumber) {
+			return directory.resolve(String.format("seg-%05d.dat", segmentNumber));
+		}
+
+		private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+			while (buffer.hasRemaining()) {
+				position += channel.write(buffer, position);
+			}
+		}
+
+		/**
+		 * Fills the buffer from {@code position}; returns {@code false} if that is already the end of the file.
+		 */
+		private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+			while (buffer.hasRemaining()) {
+				int read = channel.read(buffer, position);
+				if (read < 0) {
+					if (buffer.position() == 0) return false;
+					throw new IOException("Unexpected end of file at " + position);
+				}
+				position += read;
+			}
+			return true;
+		}
+	}
+}
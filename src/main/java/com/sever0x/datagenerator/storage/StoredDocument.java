@@ -0,0 +1,17 @@
+package com.sever0x.datagenerator.storage;
+
+import com.sever0x.datagenerator.types.DocumentType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A document found in a store; the type is only known for kinds that record it.
+ */
+@Data
+@AllArgsConstructor
+public class StoredDocument {
+	private int documentId;
+	private DocumentType documentType;
+	// File or segment position, for logs
+	private String location;
+}
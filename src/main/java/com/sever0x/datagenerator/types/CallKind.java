@@ -0,0 +1,20 @@
+package com.sever0x.datagenerator.types;
+
+import lombok.Getter;
+
+/**
+ * Kinds of OpenAI request, each with its own entry in the {@code dataset.openai.routes} table.
+ */
+@Getter
+public enum CallKind {
+	STANDARD("standard"),
+	COMPLEX("complex"),
+	EDGE_CASE("edge-case"),
+	MULTILINGUAL("multilingual"),
+	PERSONALITY("personality"),
+	EXTRACTION("extraction");
+
+	// Name used in the configuration, metrics and JFR events
+	private final String key;
+	CallKind(String key) { this.key = key; }
+}
@@ -0,0 +1,34 @@
+package com.sever0x.datagenerator.types;
+
+import com.sever0x.datagenerator.data.InsuranceEntities;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Entity categories carried by {@link InsuranceEntities}. Declaration order is the labeling priority:
+ * when two matches overlap, the type declared first wins.
+ */
+public enum EntityType {
+	CONTRACT_NUMBER(InsuranceEntities::getContractNumbers),
+	CUSTOMER_ID(InsuranceEntities::getCustomerIds),
+	COMPANY_NAME(InsuranceEntities::getCompanyNames),
+	PERSON_NAME(InsuranceEntities::getPersonNames),
+	ADDRESS(InsuranceEntities::getAddresses),
+	AMOUNT(InsuranceEntities::getAmounts),
+	DATE(InsuranceEntities::getDates);
+
+	private static final EntityType[] VALUES = values();
+
+	private final Function<InsuranceEntities, List<String>> accessor;
+	EntityType(Function<InsuranceEntities, List<String>> accessor) { this.accessor = accessor; }
+
+	public List<String> valuesOf(InsuranceEntities entities) {
+		List<String> values = accessor.apply(entities);
+		return values != null ? values : List.of();
+	}
+
+	public static EntityType byOrdinal(int ordinal) {
+		return VALUES[ordinal];
+	}
+}
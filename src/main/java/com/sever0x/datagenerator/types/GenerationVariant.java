@@ -0,0 +1,17 @@
+package com.sever0x.datagenerator.types;
+
+import lombok.Getter;
+
+@Getter
+public enum GenerationVariant {
+	STANDARD("Standard", true),
+	COMPLEX("Komplex (mehrere Verträge)", false),
+	EDGE_CASE("Grenzfall", false),
+	MULTILINGUAL("International", false),
+	PERSONALITY("Persönlichkeit/Stil", true);
+
+	private final String description;
+	// Whether the prompt is built from the document type; the others ignore it
+	private final boolean typed;
+	GenerationVariant(String description, boolean typed) { this.description = description; this.typed = typed; }
+}
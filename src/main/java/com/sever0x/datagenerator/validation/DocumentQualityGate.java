@@ -0,0 +1,48 @@
+package com.sever0x.datagenerator.validation;
+
+import com.sever0x.datagenerator.data.GenerationResult;
+import com.sever0x.datagenerator.job.JobScoped;
+import com.sever0x.datagenerator.types.DocumentType;
+import com.sever0x.datagenerator.types.GenerationVariant;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs all {@link DocumentValidator}s after generation and counts rejections by reason.
+ */
+@Service
+@JobScoped
+public class DocumentQualityGate {
+
+	private final List<DocumentValidator> validators;
+	private final Map<String, LongAdder> rejections = new ConcurrentHashMap<>();
+
+	public DocumentQualityGate(List<DocumentValidator> validators) {
+		this.validators = validators;
+	}
+
+	/**
+	 * @return the first rejection reason, or {@code null} if the document is accepted
+	 */
+	public String check(GenerationResult generation, DocumentType docType, GenerationVariant variant) {
+		for (DocumentValidator validator : validators) {
+			String reason = validator.validate(generation, docType, variant);
+			if (reason != null) {
+				rejections.computeIfAbsent(reason, r -> new LongAdder()).increment();
+				return reason;
+			}
+		}
+		return null;
+	}
+
+	public Map<String, Long> getRejectionCounts() {
+		Map<String, Long> counts = new TreeMap<>();
+		rejections.forEach((reason, count) -> counts.put(reason, count.sum()));
+		return counts;
+	}
+}
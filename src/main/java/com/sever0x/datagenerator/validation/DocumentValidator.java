@@ -0,0 +1,17 @@
+package com.sever0x.datagenerator.validation;
+
+import com.sever0x.datagenerator.data.GenerationResult;
+import com.sever0x.datagenerator.types.DocumentType;
+import com.sever0x.datagenerator.types.GenerationVariant;
+
+/**
+ * Local check applied to a generated document before entity extraction is paid for.
+ * Implementations are Spring components and run in {@link org.springframework.core.annotation.Order} order.
+ */
+public interface DocumentValidator {
+
+	/**
+	 * @return a constant rejection reason, or {@code null} if the document passes
+	 */
+	String validate(GenerationResult generation, DocumentType docType, GenerationVariant variant);
+}
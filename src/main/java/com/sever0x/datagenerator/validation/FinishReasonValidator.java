@@ -0,0 +1,22 @@
+package com.sever0x.datagenerator.validation;
+
+import com.sever0x.datagenerator.data.GenerationResult;
+import com.sever0x.datagenerator.types.DocumentType;
+import com.sever0x.datagenerator.types.GenerationVariant;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+@Order(2)
+@Component
+public class FinishReasonValidator implements DocumentValidator {
+
+	@Override
+	public String validate(GenerationResult generation, DocumentType docType, GenerationVariant variant) {
+		String finishReason = generation.getFinishReason();
+		if (finishReason == null || finishReason.isEmpty() || "stop".equalsIgnoreCase(finishReason)) {
+			return null;
+		}
+		// LENGTH means the letter was cut off at the token limit
+		return "length".equalsIgnoreCase(finishReason) ? "truncated" : "finish_" + finishReason.toLowerCase();
+	}
+}
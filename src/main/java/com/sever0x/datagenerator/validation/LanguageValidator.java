@@ -0,0 +1,62 @@
+package com.sever0x.datagenerator.validation;
+
+import com.sever0x.datagenerator.data.GenerationResult;
+import com.sever0x.datagenerator.types.DocumentType;
+import com.sever0x.datagenerator.types.GenerationVariant;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Character-trigram language check: counts frequent German and English trigrams inside words and rejects
+ * documents where English dominates. Trigrams are packed into ints so the scan does not allocate.
+ */
+@Order(4)
+@Component
+public class LanguageValidator implements DocumentValidator {
+
+	private static final int[] GERMAN = pack("ein", "ich", "der", "die", "und", "sch", "den", "che", "gen", "ung",
+			"ver", "ers", "ten", "ach", "nde", "ier", "cht", "ine", "ens", "eit", "ber", "ges", "ihr", "sie", "ndi");
+	private static final int[] ENGLISH = pack("the", "and", "ing", "ion", "tio", "you", "hat", "for", "tha", "nth",
+			"thi", "his", "was", "our", "wit", "ith", "are", "ere", "ati", "ect", "ave", "hav", "rou", "oul", "uld");
+
+	private static final int MIN_HITS = 20;
+
+	@Override
+	public String validate(GenerationResult generation, DocumentType docType, GenerationVariant variant) {
+		String content = generation.getContent();
+		int german = 0;
+		int english = 0;
+		int window = 0;
+		int letters = 0;
+
+		for (int i = 0; i < content.length(); i++) {
+			char c = Character.toLowerCase(content.charAt(i));
+			if (c < 'a' || c > 'z') {
+				letters = 0;
+				continue;
+			}
+			window = ((window << 8) | c) & 0xFFFFFF;
+			if (++letters >= 3) {
+				if (Arrays.binarySearch(GERMAN, window) >= 0) german++;
+				else if (Arrays.binarySearch(ENGLISH, window) >= 0) english++;
+			}
+		}
+
+		if (german + english < MIN_HITS) {
+			return null;
+		}
+		return english > german ? "not_german" : null;
+	}
+
+	private static int[] pack(String... trigrams) {
+		int[] packed = new int[trigrams.length];
+		for (int i = 0; i < trigrams.length; i++) {
+			String t = trigrams[i];
+			packed[i] = (t.charAt(0) << 16) | (t.charAt(1) << 8) | t.charAt(2);
+		}
+		Arrays.sort(packed);
+		return packed;
+	}
+}
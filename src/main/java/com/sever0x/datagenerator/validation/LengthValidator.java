@@ -0,0 +1,31 @@
+package com.sever0x.datagenerator.validation;
+
+import com.sever0x.datagenerator.data.GenerationResult;
+import com.sever0x.datagenerator.types.DocumentType;
+import com.sever0x.datagenerator.types.GenerationVariant;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+@Order(1)
+@Component
+public class LengthValidator implements DocumentValidator {
+
+	@Value("${dataset.quality.min-length:400}")
+	private int minLength;
+
+	@Value("${dataset.quality.max-length:8000}")
+	private int maxLength;
+
+	@Override
+	public String validate(GenerationResult generation, DocumentType docType, GenerationVariant variant) {
+		String content = generation.getContent();
+		if (content == null || content.length() < minLength) {
+			return "too_short";
+		}
+		if (content.length() > maxLength) {
+			return "too_long";
+		}
+		return null;
+	}
+}
@@ -0,0 +1,29 @@
+package com.sever0x.datagenerator.validation;
+
+import com.sever0x.datagenerator.data.GenerationResult;
+import com.sever0x.datagenerator.types.DocumentType;
+import com.sever0x.datagenerator.types.GenerationVariant;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Pattern;
+
+@Order(3)
+@Component
+public class RefusalValidator implements DocumentValidator {
+
+	private static final Pattern REFUSAL = Pattern.compile(
+			"I'm sorry|I am sorry|I can(?:'|no)t (?:help|assist|create|generate)|As an AI"
+					+ "|Es tut mir leid, (?:aber )?ich kann|Ich kann (?:Ihnen )?(?:dabei )?nicht helfen|Als (?:eine )?KI",
+			Pattern.CASE_INSENSITIVE);
+
+	// Refusals are short and come first; no need to scan whole letters
+	private static final int SCAN_LIMIT = 300;
+
+	@Override
+	public String validate(GenerationResult generation, DocumentType docType, GenerationVariant variant) {
+		String content = generation.getContent();
+		int end = Math.min(content.length(), SCAN_LIMIT);
+		return REFUSAL.matcher(content).region(0, end).find() ? "refusal" : null;
+	}
+}
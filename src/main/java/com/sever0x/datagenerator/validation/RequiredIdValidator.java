@@ -0,0 +1,51 @@
+package com.sever0x.datagenerator.validation;
+
+import com.sever0x.datagenerator.data.GenerationResult;
+import com.sever0x.datagenerator.types.DocumentType;
+import com.sever0x.datagenerator.types.GenerationVariant;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Pattern;
+
+/**
+ * Checks for the contract and customer IDs that the variant's prompt asks for. Document-type prompts (standard
+ * and personality) and complex documents ask for both; quotes may carry an offer number instead of a contract
+ * number and only mention a customer ID for existing customers. Edge-case prompts only ask for contract numbers
+ * and multilingual prompts for neither.
+ */
+@Order(5)
+@Component
+public class RequiredIdValidator implements DocumentValidator {
+
+	private static final Pattern CONTRACT_ID = Pattern.compile(
+			"\\b(?:VS|POL|KV|VN|LV|HV|RV|UV|VSNR|VERS)[-/ ]?[A-Z0-9-]*\\d{3,}"
+					+ "|(?:Vertrags|Policen|Police|Versicherungsschein)[- ]?(?:nummer|Nr\\.?)\\s*:?\\s*[A-Z0-9-]*\\d{3,}");
+	private static final Pattern OFFER_ID = Pattern.compile(
+			"\\bANG[-/ ]?[A-Z0-9-]*\\d{3,}|Angebots[- ]?(?:nummer|Nr\\.?)\\s*:?\\s*[A-Z0-9-]*\\d{3,}");
+	private static final Pattern CUSTOMER_ID = Pattern.compile(
+			"\\b(?:KD|KUNDE|KN|KDNR)[-/ ]?[A-Z0-9-]*\\d{3,}"
+					+ "|Kunden[- ]?(?:nummer|Nr\\.?)\\s*:?\\s*[A-Z0-9-]*\\d{3,}");
+
+	@Override
+	public String validate(GenerationResult generation, DocumentType docType, GenerationVariant variant) {
+		String content = generation.getContent();
+
+		if (variant == GenerationVariant.MULTILINGUAL) {
+			return null;
+		}
+		if (variant == GenerationVariant.EDGE_CASE) {
+			return CONTRACT_ID.matcher(content).find() ? null : "missing_contract_id";
+		}
+		if (variant.isTyped() && docType == DocumentType.INSURANCE_QUOTE) {
+			return OFFER_ID.matcher(content).find() || CONTRACT_ID.matcher(content).find() ? null : "missing_contract_id";
+		}
+		if (!CONTRACT_ID.matcher(content).find()) {
+			return "missing_contract_id";
+		}
+		if (!CUSTOMER_ID.matcher(content).find()) {
+			return "missing_customer_id";
+		}
+		return null;
+	}
+}
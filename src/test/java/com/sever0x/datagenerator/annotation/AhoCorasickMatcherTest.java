@@ -0,0 +1,64 @@
+package com.sever0x.datagenerator.annotation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AhoCorasickMatcherTest {
+
+	private static List<String> scan(AhoCorasickMatcher matcher, String text) {
+		List<String> matches = new ArrayList<>();
+		matcher.scan(text, (start, end, payload) -> matches.add(text.substring(start, end) + "@" + start + "#" + payload));
+		return matches;
+	}
+
+	@Test
+	void reportsOverlappingAndNestedPatterns() {
+		AhoCorasickMatcher matcher = new AhoCorasickMatcher();
+		matcher.add("he", 0);
+		matcher.add("she", 1);
+		matcher.add("his", 2);
+		matcher.add("hers", 3);
+
+		assertThat(scan(matcher, "ushers")).containsExactlyInAnyOrder("she@1#1", "he@2#0", "hers@2#3");
+	}
+
+	@Test
+	void reportsEveryOccurrence() {
+		AhoCorasickMatcher matcher = new AhoCorasickMatcher();
+		matcher.add("KD-1", 0);
+
+		assertThat(scan(matcher, "KD-1, KD-12 und KD-1")).containsExactly("KD-1@0#0", "KD-1@6#0", "KD-1@16#0");
+	}
+
+	@Test
+	void keepsLowestPayloadForDuplicatePattern() {
+		AhoCorasickMatcher matcher = new AhoCorasickMatcher();
+		matcher.add("Allianz", 3);
+		matcher.add("Allianz", 1);
+
+		assertThat(scan(matcher, "Allianz")).containsExactly("Allianz@0#1");
+	}
+
+	@Test
+	void ignoresEmptyPatterns() {
+		AhoCorasickMatcher matcher = new AhoCorasickMatcher();
+		matcher.add("", 0);
+
+		assertThat(matcher.isEmpty()).isTrue();
+		assertThat(scan(matcher, "text")).isEmpty();
+	}
+
+	@Test
+	void rejectsPatternsAfterFirstScan() {
+		AhoCorasickMatcher matcher = new AhoCorasickMatcher();
+		matcher.add("a", 0);
+		scan(matcher, "a");
+
+		assertThatThrownBy(() -> matcher.add("b", 1)).isInstanceOf(IllegalStateException.class);
+	}
+}
@@ -0,0 +1,176 @@
+package com.sever0x.datagenerator.annotation;
+
+import com.sever0x.datagenerator.data.AnnotatedDocument;
+import com.sever0x.datagenerator.data.InsuranceEntities;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntitySpanLabelerTest {
+
+	private final EntitySpanLabeler labeler = new EntitySpanLabeler();
+
+	private List<String> labeled(String text, InsuranceEntities entities) {
+		AnnotatedDocument document = labeler.annotate(text, entities);
+		List<String> tokens = new ArrayList<>();
+		for (int i = 0; i < document.getTokenCount(); i++) {
+			tokens.add(document.token(i) + "/" + EntityLabels.toBioes(document.getLabels()[i]));
+		}
+		return tokens;
+	}
+
+	@Test
+	void prefersLongestMatchOfSameType() {
+		InsuranceEntities entities = new InsuranceEntities();
+		entities.getCompanyNames().addAll(List.of("Allianz", "Allianz Versicherungs-AG"));
+
+		assertThat(labeled("Die Allianz Versicherungs-AG schreibt", entities)).containsExactly(
+				"Die/O", "Allianz/B-COMPANY_NAME", "Versicherungs-AG/E-COMPANY_NAME", "schreibt/O");
+	}
+
+	@Test
+	void prefersEarlierTypeOverLongerMatch() {
+		InsuranceEntities entities = new InsuranceEntities();
+		entities.getContractNumbers().add("POL-12345678");
+		entities.getCompanyNames().add("POL-12345678 Service GmbH");
+
+		assertThat(labeled("Von POL-12345678 Service GmbH", entities)).containsExactly(
+				"Von/O", "POL-12345678/S-CONTRACT_NUMBER", "Service/O", "GmbH/O");
+	}
+
+	@Test
+	void labelsEveryOccurrence() {
+		InsuranceEntities entities = new InsuranceEntities();
+		entities.getCustomerIds().add("KD-123456");
+
+		assertThat(labeled("KD-123456 und KD-123456", entities)).containsExactly(
+				"KD-123456/S-CUSTOMER_ID", "und/O", "KD-123456/S-CUSTOMER_ID");
+	}
+
+	@Test
+	void rejectsMatchInsideLongerWord() {
+		InsuranceEntities entities = new InsuranceEntities();
+		entities.getCustomerIds().add("KD-1234");
+
+		assertThat(labeled("Kunde KD-12345 und XKD-1234", entities)).containsOnly(
+				"Kunde/O", "KD-12345/O", "und/O", "XKD-1234/O");
+	}
+
+	@Test
+	void splitsTrailingPunctuationFromEntity() {
+		InsuranceEntities entities = new InsuranceEntities();
+		entities.getCustomerIds().add("KD-123456");
+		entities.getPersonNames().add("Herr Andreas Müller");
+
+		assertThat(labeled("Herr Andreas Müller, Kunde KD-123456.", entities)).containsExactly(
+				"Herr/B-PERSON_NAME", "Andreas/I-PERSON_NAME", "Müller/E-PERSON_NAME", ",/O",
+				"Kunde/O", "KD-123456/S-CUSTOMER_ID", "./O");
+	}
+
+	@Test
+	void neverLabelsAcrossSentences() {
+		InsuranceEntities entities = new InsuranceEntities();
+		entities.getPersonNames().add("Petra\nSchmidt");
+
+		assertThat(labeled("Frau Petra\nSchmidt kommt", entities)).allMatch(token -> token.endsWith("/O"));
+	}
+
+	@Test
+	void agreesWithBaselineLabelerOnSampleDocument() {
+		String text = """
+				Allianz Versicherungs-AG
+				Hauptstraße 15, 10115 Berlin
+
+				Sehr geehrter Herr Andreas Müller,
+
+				Ihre Police VS-2024-123456 zur Kundennummer KD-123456 wurde bestätigt.
+				Mit freundlichen Grüßen
+				Dr. Petra Schmidt""";
+		InsuranceEntities entities = new InsuranceEntities();
+		entities.getContractNumbers().add("VS-2024-123456");
+		entities.getCustomerIds().add("KD-123456");
+		entities.getCompanyNames().add("Allianz Versicherungs-AG");
+		entities.getPersonNames().addAll(List.of("Herr Andreas Müller", "Dr. Petra Schmidt"));
+
+		assertThat(labeler.annotate(text, entities).toConll()).isEqualTo(baselineConll(text, entities));
+	}
+
+	@Test
+	void splitsDigitGroupsLikeBaseline() {
+		assertThat(labeled("Am 15.03.2024 wurden 1.234.567,89 EUR für 12-34-56-78 gezahlt.", null)).containsExactly(
+				"Am/O", "15/O", "./O", "03.2024/O", "wurden/O", "1/O", "./O", "234.567,89/O", "EUR/O", "für/O",
+				"12/O", "-/O", "34-56/O", "-/O", "78/O", "gezahlt/O", "./O");
+	}
+
+	@Test
+	void agreesWithBaselineLabelerOnDatesAmountsAndIds() {
+		String text = """
+				Schadensmeldung vom 15.03.2024
+
+				Sehr geehrte Frau Petra Schmidt,
+
+				zum Schaden SCH-2024-03-001 vom 02.01.2024 erstatten wir 1.250,00 EUR.
+				Ihre Police VS-2024-123456 läuft bis 31.12.2025, Beitrag 1.234.567 Cent.
+				Kundennummer KD-123456, Rückfragen unter 030-123-4567.""";
+		InsuranceEntities entities = new InsuranceEntities();
+		entities.getContractNumbers().add("VS-2024-123456");
+		entities.getCustomerIds().add("KD-123456");
+		entities.getPersonNames().add("Frau Petra Schmidt");
+
+		assertThat(labeler.annotate(text, entities).toConll()).isEqualTo(baselineConll(text, entities));
+	}
+
+	// The indexOf-based labeler this class replaced, kept as the reference for documents where each entity
+	// occurs once and no two entities overlap
+
+	private static String baselineConll(String text, InsuranceEntities entities) {
+		StringBuilder conllOutput = new StringBuilder();
+		for (String sentence : text.split("\\n\\s*\\n|\\n(?=\\p{Upper})")) {
+			if (sentence.trim().isEmpty()) continue;
+
+			String[] tokens = sentence.replaceAll("([.!?:;,])(?=\\s|$)", " $1")
+					.replaceAll("(\\d+)([.-])(\\d+)", "$1 $2 $3")
+					.split("\\s+");
+			String[] labels = new String[tokens.length];
+			Arrays.fill(labels, "O");
+			baselineLabels(tokens, labels, sentence, entities.getContractNumbers(), "CONTRACT_NUMBER");
+			baselineLabels(tokens, labels, sentence, entities.getCustomerIds(), "CUSTOMER_ID");
+			baselineLabels(tokens, labels, sentence, entities.getCompanyNames(), "COMPANY_NAME");
+			baselineLabels(tokens, labels, sentence, entities.getPersonNames(), "PERSON_NAME");
+
+			for (int i = 0; i < tokens.length; i++) {
+				conllOutput.append(tokens[i]).append("\t").append(labels[i]).append("\n");
+			}
+			conllOutput.append("\n");
+		}
+		return conllOutput.toString();
+	}
+
+	private static void baselineLabels(String[] tokens, String[] labels, String sentence, List<String> values, String type) {
+		for (String entity : values) {
+			int start = sentence.indexOf(entity);
+			if (start == -1) continue;
+
+			int charPos = 0;
+			int first = -1;
+			int last = -1;
+			for (int i = 0; i < tokens.length; i++) {
+				while (charPos < sentence.length() && Character.isWhitespace(sentence.charAt(charPos))) charPos++;
+				int tokenEnd = charPos + tokens[i].length();
+				if (first == -1 && tokenEnd > start) first = i;
+				if (charPos < start + entity.length()) last = i;
+				charPos = tokenEnd;
+			}
+			if (first == -1 || last == -1) continue;
+
+			labels[first] = (first == last ? "S-" : "B-") + type;
+			for (int i = first + 1; i <= last; i++) {
+				labels[i] = "I-" + type;
+			}
+		}
+	}
+}
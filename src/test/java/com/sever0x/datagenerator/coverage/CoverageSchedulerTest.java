@@ -0,0 +1,62 @@
+package com.sever0x.datagenerator.coverage;
+
+import com.sever0x.datagenerator.annotation.EntityLabels;
+import com.sever0x.datagenerator.types.DocumentType;
+import com.sever0x.datagenerator.types.EntityType;
+import com.sever0x.datagenerator.types.GenerationVariant;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CoverageSchedulerTest {
+
+	private static CoverageScheduler scheduler(String targets) {
+		CoverageScheduler scheduler = new CoverageScheduler();
+		ReflectionTestUtils.setField(scheduler, "targetSpec", targets);
+		ReflectionTestUtils.setField(scheduler, "exploration", 0.0);
+		scheduler.start();
+		return scheduler;
+	}
+
+	private static int[] spans(EntityType type, int count) {
+		int[] labelCounts = new int[EntityLabels.LABEL_COUNT];
+		labelCounts[EntityLabels.encode(type, EntityLabels.TAG_SINGLE)] = count;
+		return labelCounts;
+	}
+
+	@Test
+	void typeScopedTargetIgnoresEdgeCaseOutput() {
+		CoverageScheduler scheduler = scheduler("CLAIM_REPORT/PERSON_NAME=5");
+
+		scheduler.record(DocumentType.CLAIM_REPORT, GenerationVariant.EDGE_CASE, spans(EntityType.PERSON_NAME, 3));
+		assertThat(scheduler.progress()).containsEntry("CLAIM_REPORT/PERSON_NAME", "0/5");
+
+		scheduler.record(DocumentType.CLAIM_REPORT, GenerationVariant.PERSONALITY, spans(EntityType.PERSON_NAME, 3));
+		scheduler.record(DocumentType.CLAIM_REPORT, GenerationVariant.STANDARD, spans(EntityType.PERSON_NAME, 2));
+		assertThat(scheduler.progress()).containsEntry("CLAIM_REPORT/PERSON_NAME", "5/5");
+		assertThat(scheduler.isComplete()).isTrue();
+	}
+
+	@Test
+	void typeScopedTargetOnlyPicksPromptsOfThatType() {
+		CoverageScheduler scheduler = scheduler("CLAIM_REPORT/PERSON_NAME=5");
+
+		for (int i = 0; i < 200; i++) {
+			CoverageScheduler.Pick pick = scheduler.next();
+			assertThat(pick.getVariant().isTyped()).isTrue();
+			assertThat(pick.getDocumentType()).isEqualTo(DocumentType.CLAIM_REPORT);
+		}
+	}
+
+	@Test
+	void variantScopedTargetCountsEveryDocumentType() {
+		CoverageScheduler scheduler = scheduler("EDGE_CASE/CONTRACT_NUMBER=4");
+
+		scheduler.record(DocumentType.CLAIM_REPORT, GenerationVariant.EDGE_CASE, spans(EntityType.CONTRACT_NUMBER, 2));
+		scheduler.record(DocumentType.CANCELLATION, GenerationVariant.EDGE_CASE, spans(EntityType.CONTRACT_NUMBER, 2));
+		scheduler.record(DocumentType.CANCELLATION, GenerationVariant.STANDARD, spans(EntityType.CONTRACT_NUMBER, 2));
+
+		assertThat(scheduler.progress()).containsEntry("EDGE_CASE/CONTRACT_NUMBER", "4/4");
+	}
+}
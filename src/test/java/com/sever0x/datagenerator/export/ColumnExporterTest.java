@@ -0,0 +1,66 @@
+package com.sever0x.datagenerator.export;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.sever0x.datagenerator.export.ExporterTestDocuments.CLAIM;
+import static com.sever0x.datagenerator.export.ExporterTestDocuments.QUOTE;
+import static com.sever0x.datagenerator.export.ExporterTestDocuments.document;
+import static com.sever0x.datagenerator.export.ExporterTestDocuments.export;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnExporterTest {
+
+	@TempDir
+	Path dataset;
+
+	@Test
+	void writesEachSchemeToItsOwnFile() throws IOException {
+		Path conll = export(new ConllExporter(), dataset, false, document(1, CLAIM));
+		Path iob2 = export(new Iob2Exporter(), dataset, false, document(1, CLAIM));
+		Path bioes = export(new BioesExporter(), dataset, false, document(1, CLAIM));
+		Path flair = export(new FlairExporter(), dataset, false, document(1, CLAIM));
+
+		assertThat(dataset.relativize(conll)).hasToString("training_data/train.conll");
+		assertThat(dataset.relativize(flair)).hasToString("flair_ready/train.txt");
+		assertThat(Files.readString(conll)).isEqualTo("""
+				Herr	O
+				Max	B-PERSON_NAME
+				Mustermann	I-PERSON_NAME
+				schreibt	O
+				.	O
+
+				Vertrag	O
+				POL-12345678	S-CONTRACT_NUMBER
+				.	O
+
+
+
+				""");
+		assertThat(Files.readString(flair)).isEqualTo(Files.readString(conll));
+		assertThat(Files.readAllLines(iob2)).contains("Mustermann\tI-PERSON_NAME", "POL-12345678\tB-CONTRACT_NUMBER");
+		assertThat(Files.readAllLines(bioes)).contains("Mustermann\tE-PERSON_NAME", "POL-12345678\tS-CONTRACT_NUMBER");
+	}
+
+	@Test
+	void appendKeepsEarlierDocuments() throws IOException {
+		Path first = export(new Iob2Exporter(), dataset, false, document(1, CLAIM));
+		String earlier = Files.readString(first);
+
+		Path appended = export(new Iob2Exporter(), dataset, true, document(2, QUOTE));
+
+		assertThat(Files.readString(appended)).startsWith(earlier).endsWith("KD-123456\tB-CUSTOMER_ID\n.\tO\n\n\n\n");
+	}
+
+	@Test
+	void newExportReplacesFile() throws IOException {
+		export(new ConllExporter(), dataset, false, document(1, CLAIM));
+		Path replaced = export(new ConllExporter(), dataset, false, document(2, QUOTE));
+
+		assertThat(Files.readString(replaced)).doesNotContain("Mustermann").contains("KD-123456\tS-CUSTOMER_ID");
+	}
+}
@@ -0,0 +1,42 @@
+package com.sever0x.datagenerator.export;
+
+import com.sever0x.datagenerator.annotation.EntitySpanLabeler;
+import com.sever0x.datagenerator.data.AnnotatedDocument;
+import com.sever0x.datagenerator.data.DocumentData;
+import com.sever0x.datagenerator.data.InsuranceEntities;
+import com.sever0x.datagenerator.types.DocumentType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Labeled documents for the exporter tests.
+ */
+class ExporterTestDocuments {
+
+	static final String CLAIM = "Herr Max Mustermann schreibt.\nVertrag POL-12345678.";
+	static final String QUOTE = "Angebot für KD-123456.";
+
+	private static final EntitySpanLabeler LABELER = new EntitySpanLabeler();
+
+	static DocumentData document(int documentId, String text) {
+		InsuranceEntities entities = new InsuranceEntities();
+		entities.getPersonNames().add("Max Mustermann");
+		entities.getContractNumbers().add("POL-12345678");
+		entities.getCustomerIds().add("KD-123456");
+		AnnotatedDocument annotated = LABELER.annotate(text, entities);
+		return new DocumentData(documentId, text, annotated, entities, DocumentType.CLAIM_REPORT, null, annotated.labelCounts());
+	}
+
+	/**
+	 * Writes the documents into a new split file, or after the documents already in it.
+	 */
+	static Path export(DatasetExporter exporter, Path dataset, boolean append, DocumentData... documents) throws IOException {
+		try (DatasetExporter.SplitWriter writer = exporter.open(dataset, "train", append)) {
+			for (DocumentData document : documents) {
+				writer.write(document, document.getAnnotated());
+			}
+			return writer.getPath();
+		}
+	}
+}
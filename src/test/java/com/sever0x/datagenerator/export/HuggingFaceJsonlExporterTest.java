@@ -0,0 +1,64 @@
+package com.sever0x.datagenerator.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.sever0x.datagenerator.export.ExporterTestDocuments.CLAIM;
+import static com.sever0x.datagenerator.export.ExporterTestDocuments.QUOTE;
+import static com.sever0x.datagenerator.export.ExporterTestDocuments.document;
+import static com.sever0x.datagenerator.export.ExporterTestDocuments.export;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HuggingFaceJsonlExporterTest {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	@TempDir
+	Path dataset;
+
+	private List<JsonNode> records(Path file) throws IOException {
+		return Files.readAllLines(file).stream().map(line -> {
+			try {
+				return MAPPER.readTree(line);
+			} catch (IOException e) {
+				throw new AssertionError("Not a JSON line: " + line, e);
+			}
+		}).toList();
+	}
+
+	@Test
+	void writesTokensTagsAndEntitySpans() throws IOException {
+		Path file = export(new HuggingFaceJsonlExporter(), dataset, false, document(1, CLAIM));
+
+		assertThat(dataset.relativize(file)).hasToString("exports/hf/train.jsonl");
+		JsonNode record = records(file).get(0);
+		assertThat(record.path("id").asInt()).isEqualTo(1);
+		assertThat(record.path("document_type").asText()).isEqualTo("CLAIM_REPORT");
+		assertThat(record.path("text").asText()).isEqualTo(CLAIM);
+		assertThat(record.path("tokens").get(1).asText()).isEqualTo("Max");
+		assertThat(record.path("offsets").get(1).toString()).isEqualTo("[5,8]");
+		assertThat(record.path("ner_tags").get(2).asText()).isEqualTo("I-PERSON_NAME");
+
+		JsonNode entities = record.path("entities");
+		assertThat(entities).hasSize(2);
+		for (JsonNode entity : entities) {
+			String covered = CLAIM.substring(entity.path("start").asInt(), entity.path("end").asInt());
+			assertThat(covered).isEqualTo(entity.path("label").asText().equals("PERSON_NAME") ? "Max Mustermann" : "POL-12345678");
+		}
+	}
+
+	@Test
+	void appendAddsOneLinePerDocument() throws IOException {
+		export(new HuggingFaceJsonlExporter(), dataset, false, document(1, CLAIM));
+		Path file = export(new HuggingFaceJsonlExporter(), dataset, true, document(2, QUOTE), document(3, QUOTE));
+
+		assertThat(records(file)).extracting(record -> record.path("id").asInt()).containsExactly(1, 2, 3);
+	}
+}
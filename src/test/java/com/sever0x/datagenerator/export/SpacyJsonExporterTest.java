@@ -0,0 +1,77 @@
+package com.sever0x.datagenerator.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.sever0x.datagenerator.export.ExporterTestDocuments.CLAIM;
+import static com.sever0x.datagenerator.export.ExporterTestDocuments.QUOTE;
+import static com.sever0x.datagenerator.export.ExporterTestDocuments.document;
+import static com.sever0x.datagenerator.export.ExporterTestDocuments.export;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SpacyJsonExporterTest {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	@TempDir
+	Path dataset;
+
+	private static List<Integer> ids(Path file) throws IOException {
+		List<Integer> ids = new ArrayList<>();
+		MAPPER.readTree(file.toFile()).forEach(document -> ids.add(document.path("id").asInt()));
+		return ids;
+	}
+
+	@Test
+	void writesSentencesWithBiluoTags() throws IOException {
+		Path file = export(new SpacyJsonExporter(), dataset, false, document(1, CLAIM));
+
+		assertThat(dataset.relativize(file)).hasToString("exports/spacy/train.json");
+		JsonNode paragraph = MAPPER.readTree(file.toFile()).get(0).path("paragraphs").get(0);
+		assertThat(paragraph.path("raw").asText()).isEqualTo(CLAIM);
+		JsonNode sentences = paragraph.path("sentences");
+		assertThat(sentences).hasSize(2);
+
+		List<String> tokens = new ArrayList<>();
+		sentences.forEach(sentence -> sentence.path("tokens").forEach(token -> tokens.add(
+				token.path("orth").asText() + "/" + token.path("ner").asText() + (token.path("space").asBoolean() ? " " : ""))));
+		assertThat(tokens).containsExactly("Herr/O ", "Max/B-PERSON_NAME ", "Mustermann/L-PERSON_NAME ", "schreibt/O", "./O ",
+				"Vertrag/O ", "POL-12345678/U-CONTRACT_NUMBER", "./O");
+	}
+
+	@Test
+	void appendReopensTheArray() throws IOException {
+		export(new SpacyJsonExporter(), dataset, false, document(1, CLAIM));
+		Path file = export(new SpacyJsonExporter(), dataset, true, document(2, QUOTE), document(3, QUOTE));
+
+		assertThat(ids(file)).containsExactly(1, 2, 3);
+	}
+
+	@Test
+	void appendToEmptyArrayAddsNoSeparator() throws IOException {
+		export(new SpacyJsonExporter(), dataset, false);
+		Path file = export(new SpacyJsonExporter(), dataset, true, document(2, QUOTE));
+
+		assertThat(ids(file)).containsExactly(2);
+	}
+
+	@Test
+	void appendRefusesFileThatIsNoArray() throws IOException {
+		Path file = dataset.resolve("exports").resolve("spacy").resolve("train.json");
+		Files.createDirectories(file.getParent());
+		Files.writeString(file, "{\"id\": 1}");
+
+		assertThatThrownBy(() -> export(new SpacyJsonExporter(), dataset, true, document(2, QUOTE)))
+				.isInstanceOf(IOException.class)
+				.hasMessageContaining("does not end with a JSON array");
+	}
+}
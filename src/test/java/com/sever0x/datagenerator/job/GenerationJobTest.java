@@ -0,0 +1,52 @@
+package com.sever0x.datagenerator.job;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GenerationJobTest {
+
+	private static GenerationJob job() {
+		return new GenerationJob("1", 10, "./dataset", null);
+	}
+
+	@Test
+	void cancelBeforeFutureIsSetCancelsTheTask() {
+		GenerationJob job = job();
+		CompletableFuture<Void> task = new CompletableFuture<>();
+
+		job.cancel();
+		job.setFuture(task);
+
+		assertThat(task.isCancelled()).isTrue();
+		assertThat(job.getStatus()).isEqualTo(GenerationJob.Status.CANCELLED);
+	}
+
+	@Test
+	void cancelAfterTaskWasPickedUpFinishesOnStart() {
+		GenerationJob job = job();
+		// A task the executor already started can no longer be cancelled
+		job.setFuture(CompletableFuture.completedFuture(null));
+
+		job.cancel();
+		assertThat(job.getStatus()).isEqualTo(GenerationJob.Status.QUEUED);
+
+		assertThat(job.start()).isFalse();
+		assertThat(job.getStatus()).isEqualTo(GenerationJob.Status.CANCELLED);
+	}
+
+	@Test
+	void cancelWhileRunningLetsTheJobFinishAsCancelled() {
+		GenerationJob job = job();
+		job.setFuture(CompletableFuture.completedFuture(null));
+
+		assertThat(job.start()).isTrue();
+		job.cancel();
+		assertThat(job.getStatus()).isEqualTo(GenerationJob.Status.RUNNING);
+
+		job.finished(null);
+		assertThat(job.getStatus()).isEqualTo(GenerationJob.Status.CANCELLED);
+	}
+}
@@ -0,0 +1,57 @@
+package com.sever0x.datagenerator.job;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JobHttpServerTest {
+
+	private final JobHttpServer server = new JobHttpServer(new GenerationJobService(null, null), new ObjectMapper());
+	private URI jobs;
+
+	@BeforeEach
+	void start() throws IOException {
+		server.start(0);
+		HttpServer http = (HttpServer) ReflectionTestUtils.getField(server, "server");
+		jobs = URI.create("http://127.0.0.1:" + http.getAddress().getPort() + "/jobs");
+	}
+
+	@AfterEach
+	void stop() {
+		server.stop();
+	}
+
+	private HttpResponse<String> post(String body) throws IOException, InterruptedException {
+		try (HttpClient client = HttpClient.newHttpClient()) {
+			return client.send(HttpRequest.newBuilder(jobs).POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+					HttpResponse.BodyHandlers.ofString());
+		}
+	}
+
+	@Test
+	void rejectsMalformedJsonWithBadRequest() throws Exception {
+		HttpResponse<String> response = post("{\"size\": 5, \"output\": ");
+
+		assertThat(response.statusCode()).isEqualTo(400);
+		assertThat(response.body()).contains("Malformed JSON body");
+	}
+
+	@Test
+	void rejectsInvalidRequestWithBadRequest() throws Exception {
+		HttpResponse<String> response = post("{\"size\": 0, \"output\": \"./dataset\"}");
+
+		assertThat(response.statusCode()).isEqualTo(400);
+		assertThat(response.body()).contains("Job size must be positive");
+	}
+}
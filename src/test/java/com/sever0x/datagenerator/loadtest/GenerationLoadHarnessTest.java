@@ -0,0 +1,188 @@
+package com.sever0x.datagenerator.loadtest;
+
+import com.sever0x.datagenerator.service.DatasetGenerationService;
+import com.sever0x.datagenerator.service.DocumentFileService;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end scaling benchmark: runs {@code generateFullDataset} against {@link OpenAiStubServer} and reports
+ * throughput, per-stage latency percentiles, queue depths and token usage per call kind from the pipeline JFR
+ * events, heap high-water mark and file counts.
+ * <p>
+ * Excluded from the default build; run with
+ * {@code mvn -Pload-test test -Dloadtest.size=10000 -Dloadtest.latency-ms=80 -Dloadtest.batch-size=8 -Dloadtest.choices=4}.
+ * Add {@code -Dloadtest.max-in-flight=32 -Dloadtest.capacity=8} to watch the adaptive concurrency limit settle
+ * against a stub that throttles above 8 concurrent requests.
+ */
+@Tag("load")
+@SpringBootTest
+class GenerationLoadHarnessTest {
+
+	private static final int SIZE = Integer.getInteger("loadtest.size", 1000);
+	private static final Path OUTPUT = Paths.get("target", "loadtest-dataset");
+
+	private static final OpenAiStubServer STUB = startStub();
+
+	@Autowired
+	private DatasetGenerationService generationService;
+
+	@Autowired
+	private DocumentFileService fileService;
+
+	@DynamicPropertySource
+	static void stubProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.ai.openai.base-url", STUB::getBaseUrl);
+		registry.add("spring.ai.openai.api-key", () -> "stub-key");
+		registry.add("spring.ai.retry.on-http-codes", () -> "429");
+		registry.add("spring.ai.retry.backoff.initial-interval", () -> "10ms");
+		registry.add("spring.ai.retry.backoff.max-interval", () -> "200ms");
+		registry.add("dataset.output-path", OUTPUT::toString);
+		registry.add("dataset.request-delay-ms", () -> "0");
+		registry.add("dataset.size", () -> String.valueOf(SIZE));
+		registry.add("dataset.extraction.batch-size", () -> System.getProperty("loadtest.batch-size", "1"));
+		registry.add("dataset.generation.choices-per-prompt", () -> System.getProperty("loadtest.choices", "1"));
+		registry.add("dataset.concurrency.max-in-flight", () -> System.getProperty("loadtest.max-in-flight", "1"));
+	}
+
+	private static OpenAiStubServer startStub() {
+		try {
+			OpenAiStubServer stub = new OpenAiStubServer(
+					Long.getLong("loadtest.latency-ms", 50),
+					Double.parseDouble(System.getProperty("loadtest.latency-sigma", "0.5")),
+					Double.parseDouble(System.getProperty("loadtest.error-429", "0.02")),
+					Double.parseDouble(System.getProperty("loadtest.error-5xx", "0.01")));
+			stub.setCapacity(Integer.getInteger("loadtest.capacity", 0));
+			return stub;
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not start OpenAI stub", e);
+		}
+	}
+
+	@AfterAll
+	static void stopStub() {
+		STUB.close();
+	}
+
+	@Test
+	void generateFullDatasetAgainstStub() throws Exception {
+		Map<String, List<Long>> stageNanos = new TreeMap<>();
+		List<Integer> concurrencyLimits = Collections.synchronizedList(new ArrayList<>());
+		Map<String, Integer> maxQueueDepths = new ConcurrentSkipListMap<>();
+		Map<String, long[]> tokensByKind = new ConcurrentSkipListMap<>();
+		List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+				.filter(pool -> pool.getType() == MemoryType.HEAP)
+				.toList();
+		heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+		long start;
+		long elapsed;
+		try (RecordingStream stream = new RecordingStream()) {
+			for (String event : List.of("ApiCall", "ExtractionParse", "ConllConversion", "FileWrite", "SplitAssembly")) {
+				stream.enable("com.sever0x.datagenerator." + event).withoutStackTrace();
+			}
+			stream.enable("com.sever0x.datagenerator.ConcurrencyLimit").withPeriod(Duration.ofSeconds(1));
+			stream.onEvent("com.sever0x.datagenerator.ConcurrencyLimit", event -> concurrencyLimits.add(event.getInt("limit")));
+			stream.enable("com.sever0x.datagenerator.PipelineQueue").withPeriod(Duration.ofMillis(200));
+			stream.onEvent("com.sever0x.datagenerator.PipelineQueue",
+					event -> maxQueueDepths.merge(event.getString("stage"), event.getInt("depth"), Math::max));
+			stream.onEvent("com.sever0x.datagenerator.ApiCall", event -> tokensByKind.merge(
+					event.getString("callKind") + " (" + event.getString("model") + ")",
+					new long[]{event.getLong("promptTokens"), event.getLong("completionTokens")},
+					(a, b) -> new long[]{a[0] + b[0], a[1] + b[1]}));
+			stream.onEvent(event -> {
+				String name = event.getEventType().getName();
+				if (!name.endsWith("ConcurrencyLimit") && !name.endsWith("PipelineQueue")) {
+					record(stageNanos, event);
+				}
+			});
+			stream.startAsync();
+
+			start = System.nanoTime();
+			generationService.generateFullDataset();
+			elapsed = System.nanoTime() - start;
+
+			stream.stop();
+		}
+
+		long heapHighWater = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+		Map<String, Long> fileCounts = countFiles(Paths.get(fileService.getDatasetPath()));
+
+		System.out.println("==== Generation load test ====");
+		System.out.printf("documents: %d, wall time: %.1fs, throughput: %.1f docs/s%n",
+				SIZE, elapsed / 1e9, SIZE / (elapsed / 1e9));
+		System.out.printf("stub requests: %d (429: %d, 5xx: %d)%n", STUB.getRequests(), STUB.getRateLimited(), STUB.getServerErrors());
+		if (!concurrencyLimits.isEmpty()) {
+			System.out.printf("concurrency limit: max %d, last %d%n",
+					Collections.max(concurrencyLimits), concurrencyLimits.get(concurrencyLimits.size() - 1));
+		}
+		maxQueueDepths.forEach((stage, depth) -> System.out.printf("queue %-22s max depth %d%n", stage, depth));
+		tokensByKind.forEach((kind, tokens) -> System.out.printf("tokens %-30s prompt %d, completion %d%n", kind, tokens[0], tokens[1]));
+		System.out.printf("heap high-water mark: %d MB%n", heapHighWater / (1024 * 1024));
+		stageNanos.forEach((stage, nanos) -> System.out.printf("%-28s n=%-8d p50=%8.2fms p99=%8.2fms%n",
+				stage, nanos.size(), percentile(nanos, 0.50), percentile(nanos, 0.99)));
+		fileCounts.forEach((dir, count) -> System.out.printf("%-28s %d files%n", dir, count));
+
+		// Per-file layouts or segment files, depending on dataset.storage.layout
+		assertThat(fileCounts.getOrDefault("raw_documents", 0L) + fileCounts.getOrDefault("segments", 0L)).isPositive();
+		assertThat(Paths.get(fileService.getDatasetPath(), "training_data", "train.conll")).exists();
+	}
+
+	private static void record(Map<String, List<Long>> stageNanos, RecordedEvent event) {
+		String stage = event.getEventType().getName().substring("com.sever0x.datagenerator.".length());
+		if (event.hasField("callKind")) {
+			stage += "/" + event.getString("callKind");
+		} else if (event.hasField("kind")) {
+			stage += "/" + event.getString("kind");
+		}
+		Duration duration = event.getDuration();
+		synchronized (stageNanos) {
+			stageNanos.computeIfAbsent(stage, s -> new ArrayList<>()).add(duration.toNanos());
+		}
+	}
+
+	private static double percentile(List<Long> nanos, double quantile) {
+		long[] sorted;
+		synchronized (nanos) {
+			sorted = nanos.stream().mapToLong(Long::longValue).toArray();
+		}
+		Arrays.sort(sorted);
+		int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+		return sorted[Math.max(index, 0)] / 1e6;
+	}
+
+	private static Map<String, Long> countFiles(Path root) throws IOException {
+		Map<String, Long> counts = new TreeMap<>();
+		try (Stream<Path> files = Files.walk(root)) {
+			files.filter(Files::isRegularFile)
+					.forEach(file -> counts.merge(root.relativize(file).getName(0).toString(), 1L, Long::sum));
+		}
+		return counts;
+	}
+}
@@ -0,0 +1,283 @@
+package com.sever0x.datagenerator.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the OpenAI chat-completions endpoint used by {@code OpenAiChatModel}. Replies with canned
+ * German letters, or with entity JSON for extraction prompts, after a log-normal latency, and injects 429 and
+ * 5xx responses at configurable rates. With a capacity set, requests beyond it queue (latency grows with the
+ * overload) and the excess is answered with 429, like an upstream that is past its concurrency budget.
+ */
+public class OpenAiStubServer implements AutoCloseable {
+
+	private static final String[] COMPANIES = {"Allianz Versicherungs-AG", "AXA Konzern AG", "HUK-COBURG Versicherungsgruppe",
+			"ERGO Versicherung AG", "Provinzial Rheinland Versicherung AG", "R+V Allgemeine Versicherung AG"};
+	private static final String[] PERSONS = {"Herr Andreas Müller", "Frau Dr. Petra Schmidt", "Herr Thomas Becker",
+			"Frau Sabine Hoffmann", "Herr Prof. Klaus Wagner", "Frau Julia Schäfer", "Herr Markus Weber"};
+	private static final String[] STREETS = {"Hauptstraße", "Bahnhofstraße", "Lindenallee", "Schillerstraße", "Gartenweg"};
+	private static final String[] CITIES = {"10115 Berlin", "80331 München", "50667 Köln", "20095 Hamburg", "60311 Frankfurt am Main"};
+
+	private static final String LETTER = """
+			%s
+			%s %d, %s
+
+			Betreff: Bestätigung Ihres Versicherungsvertrags
+
+			Sehr geehrte Damen und Herren,
+
+			hiermit bestätigen wir den Abschluss Ihrer Hausratversicherung. Ihre Vertragsnummer lautet %s, \
+			Ihre Kundennummer ist %s. Der Versicherungsschutz beginnt am %s.
+
+			Die Versicherungssumme beträgt EUR %d.000,00 und der jährliche Beitrag EUR %d,50. Die Abbuchung \
+			erfolgt zum Fälligkeitstermin von dem uns genannten Konto. Bitte prüfen Sie die beigefügten \
+			Unterlagen sorgfältig und teilen Sie uns eventuelle Abweichungen innerhalb von zwei Wochen mit.
+
+			Für Rückfragen steht Ihnen Ihr persönlicher Ansprechpartner jederzeit gerne zur Verfügung.
+
+			Mit freundlichen Grüßen
+			%s
+			Kundenservice
+			""";
+
+	private static final Pattern BATCH_DOCUMENT = Pattern.compile("### DOKUMENT (\\d+) ###\\n(.*?)### ENDE \\1 ###", Pattern.DOTALL);
+	private static final Pattern CONTRACT = Pattern.compile("VS-\\d{4}-\\d{6}");
+	private static final Pattern CUSTOMER = Pattern.compile("KD-\\d{6}");
+	private static final Pattern AMOUNT = Pattern.compile("EUR [\\d.]+,\\d{2}");
+	private static final Pattern DATE = Pattern.compile("\\d{2}\\.\\d{2}\\.\\d{4}");
+	private static final Pattern ADDRESS = Pattern.compile("\\p{L}+(?:straße|allee|weg) \\d+, \\d{5} [\\p{L} ]+");
+
+	private final ObjectMapper mapper = new ObjectMapper();
+	private final HttpServer server;
+	private final long medianLatencyMs;
+	private final double latencySigma;
+	private final double rateLimitRate;
+	private final double serverErrorRate;
+
+	private volatile int capacity;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong rateLimited = new AtomicLong();
+	private final AtomicLong serverErrors = new AtomicLong();
+
+	public OpenAiStubServer(long medianLatencyMs, double latencySigma, double rateLimitRate, double serverErrorRate) throws IOException {
+		this.medianLatencyMs = medianLatencyMs;
+		this.latencySigma = latencySigma;
+		this.rateLimitRate = rateLimitRate;
+		this.serverErrorRate = serverErrorRate;
+
+		// Without TCP_NODELAY small responses stall on delayed ACKs and dominate the measured latency
+		System.setProperty("sun.net.httpserver.nodelay", "true");
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/v1/chat/completions", this::handleCompletion);
+		server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		server.start();
+	}
+
+	public String getBaseUrl() {
+		return "http://127.0.0.1:" + server.getAddress().getPort();
+	}
+
+	/**
+	 * Concurrent requests served without slowdown; {@code 0} means unlimited.
+	 */
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+	}
+
+	public long getRequests() {
+		return requests.get();
+	}
+
+	public long getRateLimited() {
+		return rateLimited.get();
+	}
+
+	public long getServerErrors() {
+		return serverErrors.get();
+	}
+
+	private void handleCompletion(HttpExchange exchange) throws IOException {
+		int concurrent = inFlight.incrementAndGet();
+		try (exchange) {
+			requests.incrementAndGet();
+			JsonNode request = mapper.readTree(exchange.getRequestBody());
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+
+			double overload = capacity > 0 ? Math.max(1.0, (double) concurrent / capacity) : 1.0;
+			sleep((long) (overload * medianLatencyMs * Math.exp(latencySigma * random.nextGaussian())));
+
+			exchange.getResponseHeaders().add("x-ratelimit-limit-requests", "10000");
+			exchange.getResponseHeaders().add("x-ratelimit-remaining-requests", String.valueOf(random.nextInt(1, 10000)));
+			exchange.getResponseHeaders().add("x-ratelimit-reset-requests", "6ms");
+
+			double roll = random.nextDouble();
+			if (roll < rateLimitRate || random.nextDouble() < 1 - 1 / overload) {
+				rateLimited.incrementAndGet();
+				exchange.getResponseHeaders().add("retry-after-ms", "20");
+				send(exchange, 429, "{\"error\":{\"message\":\"Rate limit reached\",\"type\":\"requests\",\"code\":\"rate_limit_exceeded\"}}");
+				return;
+			}
+			if (roll < rateLimitRate + serverErrorRate) {
+				serverErrors.incrementAndGet();
+				send(exchange, random.nextBoolean() ? 500 : 503, "{\"error\":{\"message\":\"The server had an error\",\"type\":\"server_error\"}}");
+				return;
+			}
+
+			String userPrompt = lastMessage(request);
+			List<String> contents = new ArrayList<>();
+			if (userPrompt.contains("### DOKUMENT ")) {
+				// JSON mode only allows an object at the top level
+				boolean jsonMode = "json_object".equals(request.path("response_format").path("type").asText());
+				contents.add(batchEntityJson(userPrompt, jsonMode));
+			} else if (userPrompt.contains("extrahiere")) {
+				contents.add(entityJson(userPrompt));
+			} else {
+				// Honor "n" with a distinct letter per choice
+				for (int n = Math.max(1, request.path("n").asInt(1)); n > 0; n--) {
+					contents.add(letter(random));
+				}
+			}
+			send(exchange, 200, mapper.writeValueAsString(completion(request, contents)));
+		} finally {
+			inFlight.decrementAndGet();
+		}
+	}
+
+	private String lastMessage(JsonNode request) {
+		JsonNode messages = request.path("messages");
+		return messages.isEmpty() ? "" : messages.get(messages.size() - 1).path("content").asText();
+	}
+
+	private ObjectNode completion(JsonNode request, List<String> contents) {
+		ObjectNode response = mapper.createObjectNode();
+		response.put("id", "chatcmpl-stub-" + requests.get());
+		response.put("object", "chat.completion");
+		response.put("created", System.currentTimeMillis() / 1000);
+		response.put("model", request.path("model").asText("gpt-4.1-nano"));
+
+		ArrayNode choices = response.putArray("choices");
+		int completionTokens = 0;
+		for (int index = 0; index < contents.size(); index++) {
+			ObjectNode choice = choices.addObject();
+			choice.put("index", index);
+			choice.putObject("message").put("role", "assistant").put("content", contents.get(index));
+			choice.put("finish_reason", "stop");
+			completionTokens += contents.get(index).length() / 4;
+		}
+
+		int promptTokens = request.toString().length() / 4;
+		response.putObject("usage")
+				.put("prompt_tokens", promptTokens)
+				.put("completion_tokens", completionTokens)
+				.put("total_tokens", promptTokens + completionTokens);
+		return response;
+	}
+
+	private String letter(ThreadLocalRandom random) {
+		return LETTER.formatted(
+				pick(COMPANIES, random), pick(STREETS, random), random.nextInt(1, 200), pick(CITIES, random),
+				"VS-2024-%06d".formatted(random.nextInt(1_000_000)),
+				"KD-%06d".formatted(random.nextInt(1_000_000)),
+				"%02d.%02d.2024".formatted(random.nextInt(1, 29), random.nextInt(1, 13)),
+				random.nextInt(10, 500), random.nextInt(80, 1500),
+				pick(PERSONS, random));
+	}
+
+	private String entityJson(String prompt) throws IOException {
+		// Only look at the embedded document, not at the example JSON in the instructions
+		int from = prompt.indexOf("DOKUMENT:");
+		int to = prompt.indexOf("AUFGABE:");
+		if (from >= 0 && to > from) {
+			prompt = prompt.substring(from, to);
+		}
+		return mapper.writeValueAsString(entities(prompt));
+	}
+
+	private String batchEntityJson(String prompt, boolean jsonMode) throws IOException {
+		ObjectNode wrapper = mapper.createObjectNode();
+		ArrayNode results = jsonMode ? wrapper.putArray("documents") : mapper.createArrayNode();
+		Matcher documents = BATCH_DOCUMENT.matcher(prompt);
+		while (documents.find()) {
+			ObjectNode entities = results.addObject();
+			entities.put("id", Integer.parseInt(documents.group(1)));
+			entities.setAll(entities(documents.group(2)));
+		}
+		return mapper.writeValueAsString(jsonMode ? wrapper : results);
+	}
+
+	private ObjectNode entities(String prompt) {
+		ObjectNode entities = mapper.createObjectNode();
+		addMatches(entities.putArray("contract_numbers"), CONTRACT, prompt);
+		addMatches(entities.putArray("customer_ids"), CUSTOMER, prompt);
+		addContained(entities.putArray("company_names"), COMPANIES, prompt);
+		addContained(entities.putArray("person_names"), PERSONS, prompt);
+		addMatches(entities.putArray("amounts"), AMOUNT, prompt);
+		addMatches(entities.putArray("dates"), DATE, prompt);
+		addMatches(entities.putArray("addresses"), ADDRESS, prompt);
+		return entities;
+	}
+
+	private void addMatches(ArrayNode target, Pattern pattern, String text) {
+		Set<String> found = new LinkedHashSet<>();
+		Matcher matcher = pattern.matcher(text);
+		while (matcher.find()) {
+			found.add(matcher.group());
+		}
+		found.forEach(target::add);
+	}
+
+	private void addContained(ArrayNode target, String[] candidates, String text) {
+		for (String candidate : candidates) {
+			if (text.contains(candidate)) {
+				target.add(candidate);
+			}
+		}
+	}
+
+	private static String pick(String[] values, ThreadLocalRandom random) {
+		return values[random.nextInt(values.length)];
+	}
+
+	private void send(HttpExchange exchange, int status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+	}
+}
@@ -0,0 +1,48 @@
+package com.sever0x.datagenerator.pipeline;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Timeout(10)
+class PipelineStageTest {
+
+	@Test
+	void keepsWorkingAfterRuntimeException() throws InterruptedException {
+		List<Integer> handled = new CopyOnWriteArrayList<>();
+		PipelineStage<Integer> stage = PipelineStage.io("test", 4, 1, item -> {
+			if (item == 2) throw new IllegalStateException("bad item");
+			handled.add(item);
+		});
+		for (int i = 1; i <= 3; i++) {
+			stage.put(i);
+		}
+		stage.finish();
+
+		assertThat(handled).containsExactly(1, 3);
+		assertThat(stage.isAborted()).isFalse();
+	}
+
+	@Test
+	void errorAbortsStageAndLetsFinishReturn() throws InterruptedException {
+		AtomicInteger aborts = new AtomicInteger();
+		PipelineStage<Integer> stage = PipelineStage.cpu("test", 1, 1, item -> {
+			throw new StackOverflowError();
+		});
+		stage.onAbort(aborts::incrementAndGet);
+
+		// More items than the queue and the worker can hold; puts after the abort are dropped
+		for (int i = 0; i < 10; i++) {
+			stage.put(i);
+		}
+		stage.finish();
+
+		assertThat(stage.isAborted()).isTrue();
+		assertThat(aborts).hasValue(1);
+	}
+}
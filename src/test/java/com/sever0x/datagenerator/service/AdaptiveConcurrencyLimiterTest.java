@@ -0,0 +1,160 @@
+package com.sever0x.datagenerator.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimiterTest {
+
+	private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private AdaptiveConcurrencyLimiter limiter;
+
+	@AfterEach
+	void stopLimiter() {
+		if (limiter != null) {
+			limiter.shutdown();
+		}
+	}
+
+	/**
+	 * One call that took {@code latencyNanos}.
+	 */
+	private void call(long latencyNanos, boolean success) throws InterruptedException {
+		limiter.acquire();
+		limiter.release("standard", latencyNanos, success, false);
+	}
+
+	private long throttled() {
+		return (long) ReflectionTestUtils.getField(limiter, "throttled");
+	}
+
+	@Test
+	void growsByAboutOneSlotPerRoundTripWhileSaturated() throws InterruptedException {
+		limiter = OpenAiTestSupport.limiter(8, 2, null);
+		limiter.acquire();
+
+		// Each call fills the second slot: 2 + 1/2 + 1/2.5 + 1/2.9 > 3
+		for (int i = 0; i < 3; i++) {
+			call(MILLIS, true);
+		}
+		assertThat(limiter.getLimit()).isEqualTo(3);
+	}
+
+	@Test
+	void doesNotGrowWhileSlotsAreFree() throws InterruptedException {
+		limiter = OpenAiTestSupport.limiter(8, 4, null);
+
+		for (int i = 0; i < 20; i++) {
+			call(MILLIS, true);
+		}
+		assertThat(limiter.getLimit()).isEqualTo(4);
+	}
+
+	@Test
+	void neverGrowsAboveMaximum() throws InterruptedException {
+		limiter = OpenAiTestSupport.limiter(2, 2, null);
+		limiter.acquire();
+
+		for (int i = 0; i < 10; i++) {
+			call(MILLIS, true);
+		}
+		assertThat(limiter.getLimit()).isEqualTo(2);
+	}
+
+	@Test
+	void halvesOnThrottleAndWaitsOneRoundTripBeforeTheNextCut() throws InterruptedException {
+		limiter = OpenAiTestSupport.limiter(8, 8, null);
+		call(200 * MILLIS, true);
+
+		// The cooldown runs from startup, so a 429 right away does not cut yet
+		limiter.onThrottled();
+		assertThat(limiter.getLimit()).isEqualTo(8);
+
+		TimeUnit.MILLISECONDS.sleep(250);
+		limiter.onThrottled();
+		limiter.onThrottled();
+		assertThat(limiter.getLimit()).isEqualTo(4);
+
+		TimeUnit.MILLISECONDS.sleep(250);
+		limiter.onThrottled();
+		assertThat(limiter.getLimit()).isEqualTo(2);
+		assertThat(throttled()).isEqualTo(4);
+	}
+
+	@Test
+	void shrinksByATenthWhenLatencyRises() throws InterruptedException {
+		limiter = OpenAiTestSupport.limiter(8, 8, null);
+		for (int i = 0; i < 5; i++) {
+			call(MILLIS, true);
+		}
+		TimeUnit.MILLISECONDS.sleep(20);
+
+		// Smoothed latency 1 + 0.2 * 19 = 4.8ms against a 1ms baseline
+		call(20 * MILLIS, true);
+		assertThat(limiter.getLimit()).isEqualTo(7);
+	}
+
+	@Test
+	void timedOutCallsCountAsLatencyButFailuresDoNot() throws InterruptedException {
+		limiter = OpenAiTestSupport.limiter(8, 8, null);
+		for (int i = 0; i < 5; i++) {
+			call(MILLIS, true);
+		}
+		// Past the cooldown of the round trip the timed-out call makes: 1 + 0.2 * 499 = 100.8ms
+		TimeUnit.MILLISECONDS.sleep(150);
+
+		call(500 * MILLIS, false);
+		assertThat(limiter.getLimit()).isEqualTo(8);
+
+		limiter.acquire();
+		limiter.release("standard", 500 * MILLIS, false, true);
+		assertThat(limiter.getLimit()).isEqualTo(7);
+	}
+
+	@Test
+	void countsThrottleThatEndsRetriesOnce() {
+		RetryTemplate retryTemplate = RetryTemplate.builder().maxAttempts(2).fixedBackoff(1).retryOn(TransientAiException.class).build();
+		limiter = OpenAiTestSupport.limiter(8, 8, retryTemplate);
+
+		assertThatThrownBy(() -> retryTemplate.execute(context -> {
+			throw new TransientAiException("HTTP 429 - Rate limit reached");
+		})).isInstanceOfSatisfying(TransientAiException.class,
+				e -> limiter.onCallFailed(new RuntimeException("Failed to generate document", e)));
+		assertThat(throttled()).isEqualTo(2);
+
+		// A 429 the retry template never saw is counted by the caller
+		limiter.onCallFailed(new RuntimeException("Failed to generate document", new TransientAiException("HTTP 429 - Slow down")));
+		assertThat(throttled()).isEqualTo(3);
+
+		limiter.onCallFailed(new RuntimeException("Failed to generate document", new TransientAiException("HTTP 500")));
+		assertThat(throttled()).isEqualTo(3);
+	}
+
+	@Test
+	void blocksCallersAboveTheLimit() throws InterruptedException {
+		limiter = OpenAiTestSupport.limiter(1, 1, null);
+		limiter.acquire();
+
+		Thread waiting = Thread.ofVirtual().start(() -> {
+			try {
+				limiter.acquire();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		waiting.join(100);
+		assertThat(waiting.isAlive()).isTrue();
+
+		limiter.release("standard", MILLIS, true, false);
+		waiting.join(1000);
+		assertThat(waiting.isAlive()).isFalse();
+	}
+}
@@ -0,0 +1,159 @@
+package com.sever0x.datagenerator.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sever0x.datagenerator.annotation.EntitySpanLabeler;
+import com.sever0x.datagenerator.data.AnnotatedDocument;
+import com.sever0x.datagenerator.data.DatasetManifest;
+import com.sever0x.datagenerator.data.DocumentData;
+import com.sever0x.datagenerator.data.InsuranceEntities;
+import com.sever0x.datagenerator.export.ConllExporter;
+import com.sever0x.datagenerator.statistics.DatasetStatisticsCollector;
+import com.sever0x.datagenerator.storage.FlatDocumentStore;
+import com.sever0x.datagenerator.types.DocumentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DatasetReannotationServiceTest {
+
+	private static final Pattern CONTRACT = Pattern.compile("POL-(\\d+)\t(\\S+)");
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	@TempDir
+	Path dataset;
+
+	private final DatasetStatisticsCollector statisticsCollector = new DatasetStatisticsCollector();
+	private DocumentFileService fileService;
+
+	@BeforeEach
+	void createFileService() {
+		fileService = new DocumentFileService(new EntitySpanLabeler(), statisticsCollector, List.of(new ConllExporter()),
+				List.of(new FlatDocumentStore()));
+		ReflectionTestUtils.setField(fileService, "exportFormats", List.of("conll"));
+		ReflectionTestUtils.setField(fileService, "storageLayout", "flat");
+		ReflectionTestUtils.setField(fileService, "trainRatio", 0.6);
+		ReflectionTestUtils.setField(fileService, "devRatio", 0.2);
+		fileService.setBasePath(dataset.toString());
+	}
+
+	/**
+	 * Stores documents {@code [from, to]} as a run would, each naming its own contract number.
+	 */
+	private List<DocumentData> generate(int from, int to) {
+		List<DocumentData> documents = new ArrayList<>();
+		for (int id = from; id <= to; id++) {
+			String text = "Vertrag POL-" + id + " wurde angepasst.";
+			InsuranceEntities entities = new InsuranceEntities();
+			entities.getContractNumbers().add("POL-" + id);
+			fileService.saveRawDocument(text, id, DocumentType.POLICY_CONFIRMATION);
+			fileService.saveEntities(entities, id);
+			AnnotatedDocument annotated = fileService.annotate(text, entities);
+			documents.add(new DocumentData(id, text, annotated, entities, DocumentType.POLICY_CONFIRMATION, null, annotated.labelCounts()));
+		}
+		return documents;
+	}
+
+	/**
+	 * Contract numbers of a split file in file order, with their labels.
+	 */
+	private List<String> exported(String split) throws IOException {
+		List<String> contracts = new ArrayList<>();
+		Matcher matcher = CONTRACT.matcher(Files.readString(dataset.resolve("training_data").resolve(split + ".conll")));
+		while (matcher.find()) {
+			contracts.add(matcher.group(1) + "/" + matcher.group(2));
+		}
+		return contracts;
+	}
+
+	private JsonNode statistics() throws IOException {
+		return MAPPER.readTree(dataset.resolve("statistics").resolve("dataset_stats.json").toFile());
+	}
+
+	private DatasetReannotationService reannotationService() {
+		return new DatasetReannotationService(fileService, statisticsCollector);
+	}
+
+	@Test
+	void appendKeepsEarlierSplitsAndAddsARun() throws IOException {
+		fileService.createTrainingSplits(generate(1, 10), Map.of("too_short", 2L));
+		DatasetManifest created = fileService.readManifest();
+
+		fileService.appendTrainingSplits(generate(11, 15), Map.of("too_short", 1L), fileService.loadManifest());
+
+		DatasetManifest appended = fileService.readManifest();
+		for (String split : List.of("train", "dev", "test")) {
+			List<Integer> ids = appended.getSplits().get(split);
+			assertThat(ids).startsWith(created.getSplits().get(split).toArray(Integer[]::new));
+			assertThat(ids.subList(created.getSplits().get(split).size(), ids.size())).allMatch(id -> id > 10);
+		}
+		assertThat(appended.getSplits().get("train")).hasSize(6 + 3);
+		assertThat(appended.getMaxDocumentId()).isEqualTo(15);
+		assertThat(appended.getRuns()).extracting(DatasetManifest.Run::isAppend).containsExactly(false, true);
+		assertThat(appended.getRuns().get(1).getFirstDocumentId()).isEqualTo(11);
+
+		assertThat(statistics().path("total_documents").asInt()).isEqualTo(15);
+		assertThat(statistics().path("rejection_counts").path("too_short").asLong()).isEqualTo(3);
+	}
+
+	@Test
+	void reannotationKeepsSplitsRunsAndRejections() throws IOException {
+		fileService.createTrainingSplits(generate(1, 10), Map.of("too_short", 2L));
+		fileService.appendTrainingSplits(generate(11, 15), Map.of(), fileService.loadManifest());
+		DatasetManifest before = fileService.readManifest();
+		// An entity fixed by hand in a sidecar is picked up
+		int relabeled = before.getSplits().get("train").get(0);
+		fileService.saveEntities(new InsuranceEntities(), relabeled);
+
+		int documents = reannotationService().reannotate(dataset.toString());
+
+		assertThat(documents).isEqualTo(15);
+		DatasetManifest after = fileService.readManifest();
+		assertThat(after.getSplits()).isEqualTo(before.getSplits());
+		assertThat(after.getRuns()).usingRecursiveFieldByFieldElementComparator().isEqualTo(before.getRuns());
+		for (String split : List.of("train", "dev", "test")) {
+			assertThat(exported(split)).extracting(contract -> Integer.parseInt(contract.substring(0, contract.indexOf('/'))))
+					.containsExactlyElementsOf(before.getSplits().get(split));
+		}
+		assertThat(exported("train")).first().isEqualTo(relabeled + "/O");
+		assertThat(exported("train").subList(1, 9)).allMatch(contract -> contract.endsWith("/S-CONTRACT_NUMBER"));
+
+		JsonNode statistics = statistics();
+		assertThat(statistics.path("total_documents").asInt()).isEqualTo(15);
+		assertThat(statistics.path("train_size").asInt()).isEqualTo(9);
+		assertThat(statistics.path("entity_counts").path("CONTRACT_NUMBER").asInt()).isEqualTo(14);
+		assertThat(statistics.path("rejection_counts").path("too_short").asLong()).isEqualTo(2);
+	}
+
+	@Test
+	void reannotationAddsUnlistedDocumentsToSplits() throws IOException {
+		fileService.createTrainingSplits(generate(1, 10), Map.of());
+		DatasetManifest before = fileService.readManifest();
+		// Stored by a run that stopped before its splits were written
+		generate(11, 15);
+
+		int documents = reannotationService().reannotate(dataset.toString());
+
+		assertThat(documents).isEqualTo(15);
+		DatasetManifest after = fileService.readManifest();
+		for (String split : List.of("train", "dev", "test")) {
+			assertThat(after.getSplits().get(split)).startsWith(before.getSplits().get(split).toArray(Integer[]::new));
+		}
+		assertThat(after.getSplits().values().stream().flatMap(List::stream)).containsExactlyInAnyOrder(
+				1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15);
+		assertThat(after.getMaxDocumentId()).isEqualTo(15);
+		assertThat(after.getRuns()).hasSize(1);
+	}
+}
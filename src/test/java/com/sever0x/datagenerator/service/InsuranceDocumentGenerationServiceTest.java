@@ -0,0 +1,212 @@
+package com.sever0x.datagenerator.service;
+
+import com.sever0x.datagenerator.data.InsuranceEntities;
+import com.sever0x.datagenerator.types.CallKind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.jsonPath;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class InsuranceDocumentGenerationServiceTest {
+
+	private static final String COMPLETIONS = OpenAiTestSupport.BASE_URL + "/v1/chat/completions";
+	private static final List<String> DOCUMENTS = List.of(
+			"Vertrag POL-11111111", "Kunde KD-222222", "Schaden vom 15.03.2024");
+
+	private final OpenAiTestSupport openAi = new OpenAiTestSupport();
+	private final AdaptiveConcurrencyLimiter limiter = OpenAiTestSupport.limiter(1, 1, null);
+	private final OpenAiRoutingProperties routing = new OpenAiRoutingProperties();
+	private final InsuranceDocumentGenerationService service = openAi.service(routing, limiter);
+
+	@AfterEach
+	void stopLimiter() {
+		limiter.shutdown();
+	}
+
+	private void answer(String documentMarker, String json) {
+		openAi.server.expect(requestTo(COMPLETIONS))
+				.andExpect(content().string(containsString(documentMarker)))
+				.andRespond(withSuccess(OpenAiTestSupport.completion(json), MediaType.APPLICATION_JSON));
+	}
+
+	@Test
+	void mapsBatchDocumentsById() {
+		answer("### DOKUMENT 3 ###", """
+				{"documents": [
+				  {"id": 3, "dates": ["15.03.2024"]},
+				  {"id": 1, "contract_numbers": ["POL-11111111"]},
+				  {"id": 2, "customer_ids": ["KD-222222"]}
+				]}""");
+
+		List<InsuranceEntities> entities = service.extractEntitiesBatch(DOCUMENTS);
+
+		openAi.server.verify();
+		assertThat(entities).extracting(InsuranceEntities::getContractNumbers)
+				.containsExactly(List.of("POL-11111111"), List.of(), List.of());
+		assertThat(entities.get(1).getCustomerIds()).containsExactly("KD-222222");
+		assertThat(entities.get(2).getDates()).containsExactly("15.03.2024");
+	}
+
+	@Test
+	void acceptsBareArray() {
+		answer("### DOKUMENT 2 ###", """
+				[{"id": 1, "contract_numbers": ["POL-1"]}, {"id": 2, "contract_numbers": ["POL-2"]}]""");
+
+		List<InsuranceEntities> entities = service.extractEntitiesBatch(List.of("POL-1", "POL-2"));
+
+		openAi.server.verify();
+		assertThat(entities).extracting(InsuranceEntities::getContractNumbers)
+				.containsExactly(List.of("POL-1"), List.of("POL-2"));
+	}
+
+	@Test
+	void extractsTruncatedDocumentAgainOnItsOwn() {
+		answer("### DOKUMENT 3 ###", """
+				{"documents": [
+				  {"id": 1, "contract_numbers": ["POL-11111111"]},
+				  {"id": 2, "customer_ids": ["KD-222222"]},
+				  {"id": 3, "dates": ["15.03""");
+		answer("Schaden vom 15.03.2024", """
+				{"dates": ["15.03.2024"], "amounts": []}""");
+
+		List<InsuranceEntities> entities = service.extractEntitiesBatch(DOCUMENTS);
+
+		openAi.server.verify();
+		assertThat(entities.get(0).getContractNumbers()).containsExactly("POL-11111111");
+		assertThat(entities.get(1).getCustomerIds()).containsExactly("KD-222222");
+		assertThat(entities.get(2).getDates()).containsExactly("15.03.2024");
+	}
+
+	@Test
+	void extractsMissingAndUnknownIdsOnTheirOwn() {
+		answer("### DOKUMENT 2 ###", """
+				{"documents": [
+				  {"id": 1, "contract_numbers": ["POL-1"]},
+				  {"id": 1, "contract_numbers": ["POL-duplicate"]},
+				  {"id": 7, "contract_numbers": ["POL-7"]}
+				]}""");
+		answer("POL-2", """
+				{"contract_numbers": ["POL-2"]}""");
+
+		List<InsuranceEntities> entities = service.extractEntitiesBatch(List.of("POL-1", "POL-2"));
+
+		openAi.server.verify();
+		assertThat(entities).extracting(InsuranceEntities::getContractNumbers)
+				.containsExactly(List.of("POL-1"), List.of("POL-2"));
+	}
+
+	@Test
+	void extractsEveryDocumentOnItsOwnWithoutJson() {
+		answer("### DOKUMENT 2 ###", "Tut mir leid, das kann ich nicht.");
+		answer("POL-1", """
+				{"contract_numbers": ["POL-1"]}""");
+		answer("POL-2", """
+				{"contract_numbers": ["POL-2"]}""");
+
+		List<InsuranceEntities> entities = service.extractEntitiesBatch(List.of("POL-1", "POL-2"));
+
+		openAi.server.verify();
+		assertThat(entities).extracting(InsuranceEntities::getContractNumbers)
+				.containsExactly(List.of("POL-1"), List.of("POL-2"));
+	}
+
+	@Test
+	void sendsEachCallKindWithItsRoute() {
+		routing.getRoutes().put(CallKind.COMPLEX, new OpenAiRoutingProperties.Route("gpt-large", null, 1200, null));
+		routing.getRoutes().put(CallKind.EXTRACTION, new OpenAiRoutingProperties.Route("gpt-small", 0.0, 300, null));
+		openAi.server.expect(requestTo(COMPLETIONS))
+				.andExpect(jsonPath("$.model").value("gpt-large"))
+				.andExpect(jsonPath("$.max_tokens").value(1200))
+				.andExpect(jsonPath("$.temperature").value(0.8))
+				.andRespond(withSuccess(OpenAiTestSupport.completion("Sehr geehrte Damen und Herren"), MediaType.APPLICATION_JSON));
+		openAi.server.expect(requestTo(COMPLETIONS))
+				.andExpect(jsonPath("$.model").value(OpenAiTestSupport.DEFAULT_MODEL))
+				.andExpect(jsonPath("$.max_tokens").value(800))
+				.andRespond(withSuccess(OpenAiTestSupport.completion("Sehr geehrte Damen und Herren"), MediaType.APPLICATION_JSON));
+		openAi.server.expect(requestTo(COMPLETIONS))
+				.andExpect(jsonPath("$.model").value("gpt-small"))
+				.andExpect(jsonPath("$.temperature").value(0.0))
+				// The token limit is per document of the batch
+				.andExpect(jsonPath("$.max_tokens").value(900))
+				.andExpect(jsonPath("$.response_format.type").value("json_object"))
+				.andRespond(withSuccess(OpenAiTestSupport.completion("""
+						{"documents": [{"id": 1}, {"id": 2}, {"id": 3}]}"""), MediaType.APPLICATION_JSON));
+
+		service.generateComplexDocument(1);
+		service.generatePolicyConfirmation(1);
+		service.extractEntitiesBatch(DOCUMENTS);
+
+		openAi.server.verify();
+		assertThat(openAi.callMetrics.getSummary()).containsOnlyKeys("complex/gpt-large", "standard/" + OpenAiTestSupport.DEFAULT_MODEL, "extraction/gpt-small");
+	}
+
+	@Test
+	void timedOutCallKeepsItsSlotUntilItEnds() throws InterruptedException {
+		routing.setDefaults(new OpenAiRoutingProperties.Route(null, 0.8, 800, Duration.ofMillis(100)));
+		CountDownLatch answer = new CountDownLatch(1);
+		openAi.server.expect(requestTo(COMPLETIONS)).andRespond(request -> {
+			// Like a request on the wire, the answer does not stop at the interrupt
+			boolean answered = false;
+			while (!answered) {
+				try {
+					answered = answer.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					// keep waiting
+				}
+			}
+			return withSuccess(OpenAiTestSupport.completion("Sehr geehrte Damen und Herren"), MediaType.APPLICATION_JSON)
+					.createResponse(request);
+		});
+
+		assertThatThrownBy(() -> service.generatePolicyConfirmation(1)).hasRootCauseInstanceOf(TimeoutException.class);
+		assertThat(inFlight()).isEqualTo(1);
+
+		answer.countDown();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (inFlight() > 0 && System.nanoTime() < deadline) {
+			TimeUnit.MILLISECONDS.sleep(10);
+		}
+		assertThat(inFlight()).isZero();
+		// Its duration reached the latency statistics
+		assertThat(((Map<?, ?>) ReflectionTestUtils.getField(limiter, "latencyByKind")).containsKey("standard")).isTrue();
+	}
+
+	@Test
+	void batchedExtractionWaitsLongerPerDocument() {
+		routing.setDefaults(new OpenAiRoutingProperties.Route(null, 0.8, 800, Duration.ofMillis(200)));
+		openAi.server.expect(requestTo(COMPLETIONS))
+				.andRespond(request -> {
+					try {
+						TimeUnit.MILLISECONDS.sleep(300);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					return withSuccess(OpenAiTestSupport.completion("""
+							{"documents": [{"id": 1}, {"id": 2}, {"id": 3}]}"""), MediaType.APPLICATION_JSON).createResponse(request);
+				});
+
+		List<InsuranceEntities> entities = service.extractEntitiesBatch(DOCUMENTS);
+
+		openAi.server.verify();
+		assertThat(entities).hasSize(3);
+	}
+
+	private int inFlight() {
+		return (int) ReflectionTestUtils.getField(limiter, "inFlight");
+	}
+}
@@ -0,0 +1,37 @@
+package com.sever0x.datagenerator.service;
+
+import com.sever0x.datagenerator.types.CallKind;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpenAiRoutingPropertiesTest {
+
+	@Test
+	void unsetRouteSettingsComeFromDefaults() {
+		OpenAiRoutingProperties routing = new OpenAiRoutingProperties();
+		routing.setDefaults(new OpenAiRoutingProperties.Route("gpt-default", 0.8, 800, Duration.ofSeconds(120)));
+		routing.getRoutes().put(CallKind.EXTRACTION, new OpenAiRoutingProperties.Route("gpt-small", 0.0, null, null));
+
+		OpenAiRoutingProperties.Route extraction = routing.route(CallKind.EXTRACTION);
+
+		assertThat(extraction.getModel()).isEqualTo("gpt-small");
+		assertThat(extraction.getTemperature()).isZero();
+		assertThat(extraction.getMaxTokens()).isEqualTo(800);
+		assertThat(extraction.getTimeout()).isEqualTo(Duration.ofSeconds(120));
+	}
+
+	@Test
+	void kindWithoutRouteUsesDefaults() {
+		OpenAiRoutingProperties routing = new OpenAiRoutingProperties();
+		routing.getRoutes().put(CallKind.COMPLEX, new OpenAiRoutingProperties.Route("gpt-large", null, 1200, null));
+
+		assertThat(routing.route(CallKind.STANDARD)).isSameAs(routing.getDefaults());
+		assertThat(routing.route(CallKind.COMPLEX).getModel()).isEqualTo("gpt-large");
+		assertThat(routing.route(CallKind.COMPLEX).getTemperature()).isEqualTo(0.8);
+		// Routes do not change the defaults they are merged with
+		assertThat(routing.getDefaults().getMaxTokens()).isEqualTo(800);
+	}
+}
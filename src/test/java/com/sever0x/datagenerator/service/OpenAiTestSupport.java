@@ -0,0 +1,74 @@
+package com.sever0x.datagenerator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+/**
+ * A real {@link OpenAiChatModel} whose HTTP calls are answered by a {@link MockRestServiceServer}, and a
+ * generation service built on it. The chat model does not retry, so every expectation is one call.
+ */
+class OpenAiTestSupport {
+
+	static final String BASE_URL = "http://openai.test";
+	static final String DEFAULT_MODEL = "gpt-test";
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	final MockRestServiceServer server;
+	final OpenAiChatModel chatModel;
+	final OpenAiCallMetrics callMetrics = new OpenAiCallMetrics();
+
+	OpenAiTestSupport() {
+		RestClient.Builder restClient = RestClient.builder();
+		server = MockRestServiceServer.bindTo(restClient).build();
+		chatModel = OpenAiChatModel.builder()
+				.openAiApi(OpenAiApi.builder().baseUrl(BASE_URL).apiKey("test-key").restClientBuilder(restClient).build())
+				.defaultOptions(OpenAiChatOptions.builder().model(DEFAULT_MODEL).build())
+				.retryTemplate(RetryTemplate.builder().maxAttempts(1).build())
+				.build();
+	}
+
+	InsuranceDocumentGenerationService service(OpenAiRoutingProperties routing, AdaptiveConcurrencyLimiter limiter) {
+		return new InsuranceDocumentGenerationService(chatModel, MAPPER, new ApiRateLimiter(), limiter, routing,
+				callMetrics);
+	}
+
+	/**
+	 * A started limiter; {@code retryTemplate} may be {@code null}.
+	 */
+	static AdaptiveConcurrencyLimiter limiter(int maxInFlight, int initial, RetryTemplate retryTemplate) {
+		StaticListableBeanFactory beans = new StaticListableBeanFactory();
+		if (retryTemplate != null) {
+			beans.addBean("retryTemplate", retryTemplate);
+		}
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(beans.getBeanProvider(RetryTemplate.class));
+		ReflectionTestUtils.setField(limiter, "maxLimit", maxInFlight);
+		ReflectionTestUtils.setField(limiter, "initialLimit", initial);
+		ReflectionTestUtils.setField(limiter, "latencyTolerance", 2.0);
+		limiter.init();
+		return limiter;
+	}
+
+	/**
+	 * A chat completion body with one choice answering {@code content}.
+	 */
+	static String completion(String content) {
+		ObjectNode body = MAPPER.createObjectNode()
+				.put("id", "chatcmpl-test")
+				.put("object", "chat.completion")
+				.put("created", 0)
+				.put("model", DEFAULT_MODEL);
+		ObjectNode choice = body.putArray("choices").addObject().put("index", 0).put("finish_reason", "stop");
+		choice.putObject("message").put("role", "assistant").put("content", content);
+		body.putObject("usage").put("prompt_tokens", 10).put("completion_tokens", 5).put("total_tokens", 15);
+		return body.toString();
+	}
+}
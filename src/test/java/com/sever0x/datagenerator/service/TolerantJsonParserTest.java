@@ -0,0 +1,84 @@
+package com.sever0x.datagenerator.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TolerantJsonParserTest {
+
+	private final TolerantJsonParser parser = new TolerantJsonParser(new ObjectMapper());
+
+	@Test
+	void parsesPlainJson() {
+		TolerantJsonParser.Result result = parser.parse("{\"text\": \"Sehr geehrte Damen und Herren\", \"id\": 7}");
+
+		assertThat(result.isComplete()).isTrue();
+		assertThat(result.getRoot().path("text").asText()).isEqualTo("Sehr geehrte Damen und Herren");
+		assertThat(result.getRoot().path("id").asLong()).isEqualTo(7);
+	}
+
+	@Test
+	void parsesFencedJson() {
+		TolerantJsonParser.Result result = parser.parse("Here you go:\n```json\n{\"documents\": [{\"text\": \"a\"}]}\n```\n");
+
+		assertThat(result.isComplete()).isTrue();
+		assertThat(result.getRoot().path("documents")).hasSize(1);
+	}
+
+	@Test
+	void ignoresProseAroundTheValue() {
+		TolerantJsonParser.Result result = parser.parse("Sure! {\"text\": \"a\"} Let me know if you need more {examples}.");
+
+		assertThat(result.isComplete()).isTrue();
+		assertThat(result.getRoot().path("text").asText()).isEqualTo("a");
+	}
+
+	@Test
+	void skipsBracketInProseBeforeTheValue() {
+		TolerantJsonParser.Result result = parser.parse("Output [as requested]: {\"text\": \"a\"}");
+
+		assertThat(result.isComplete()).isTrue();
+		assertThat(result.getRoot().isObject()).isTrue();
+		assertThat(result.getRoot().path("text").asText()).isEqualTo("a");
+	}
+
+	@Test
+	void keepsCompleteElementsOfTruncatedArray() {
+		TolerantJsonParser.Result result = parser.parse("[{\"text\": \"a\"}, {\"text\": \"b\"}, {\"text\": \"Sehr geeh");
+
+		assertThat(result.isComplete()).isFalse();
+		JsonNode root = result.getRoot();
+		assertThat(root).hasSize(3);
+		assertThat(result.isTruncated(root)).isTrue();
+		assertThat(result.isTruncated(root.get(0))).isFalse();
+		assertThat(result.isTruncated(root.get(1))).isFalse();
+		assertThat(result.isTruncated(root.get(2))).isTrue();
+		assertThat(root.get(1).path("text").asText()).isEqualTo("b");
+		// The cut string value itself is dropped
+		assertThat(root.get(2).has("text")).isFalse();
+	}
+
+	@Test
+	void keepsCompleteDocumentsOfTruncatedWrapper() {
+		TolerantJsonParser.Result result = parser.parse("```json\n{\"documents\": [{\"text\": \"a\", \"type\": \"CLAIM_REPORT\"}, {\"text\": \"b\", \"ty");
+
+		assertThat(result.isComplete()).isFalse();
+		JsonNode documents = result.getRoot().path("documents");
+		assertThat(result.isTruncated(result.getRoot())).isTrue();
+		assertThat(result.isTruncated(documents)).isTrue();
+		assertThat(documents).hasSize(2);
+		assertThat(result.isTruncated(documents.get(0))).isFalse();
+		assertThat(documents.get(0).path("type").asText()).isEqualTo("CLAIM_REPORT");
+		assertThat(result.isTruncated(documents.get(1))).isTrue();
+	}
+
+	@Test
+	void returnsNoRootWithoutJson() {
+		TolerantJsonParser.Result result = parser.parse("I'm sorry, I can't help with that.");
+
+		assertThat(result.isComplete()).isFalse();
+		assertThat(result.getRoot()).isNull();
+	}
+}
@@ -0,0 +1,81 @@
+package com.sever0x.datagenerator.statistics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sever0x.datagenerator.annotation.EntitySpanLabeler;
+import com.sever0x.datagenerator.data.AnnotatedDocument;
+import com.sever0x.datagenerator.data.InsuranceEntities;
+import com.sever0x.datagenerator.types.DocumentType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class DatasetStatisticsCollectorTest {
+
+	private static final String TEXT = "Kunde KD-123456 meldet einen Schaden. Vertrag POL-12345678 bei der Allianz.";
+
+	@TempDir
+	Path statistics;
+
+	private final EntitySpanLabeler labeler = new EntitySpanLabeler();
+	private final DatasetStatisticsCollector collector = new DatasetStatisticsCollector();
+
+	private void record(DocumentType type, String customerId, String split) {
+		InsuranceEntities entities = new InsuranceEntities();
+		entities.getCustomerIds().add(customerId);
+		entities.getContractNumbers().add("POL-12345678");
+		entities.getCompanyNames().add(null);
+		AnnotatedDocument annotated = labeler.annotate(TEXT.replace("KD-123456", customerId), entities);
+		collector.recordDocument(type, entities, annotated);
+		collector.recordSplit(split, annotated.labelCounts());
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> map(Object value) {
+		return (Map<String, Object>) value;
+	}
+
+	@Test
+	void aggregatesDocumentsEntitiesAndSplits() {
+		collector.start(statistics);
+		record(DocumentType.CLAIM_REPORT, "KD-123456", "train");
+		record(DocumentType.CLAIM_REPORT, "KD-654321", "train");
+		record(DocumentType.POLICY_CONFIRMATION, "KD-123456", "test");
+
+		Map<String, Object> snapshot = collector.snapshot();
+		assertThat(snapshot).containsEntry("documents", 3L);
+		assertThat(snapshot.get("document_type_counts")).isEqualTo(Map.of("CLAIM_REPORT", 2L, "POLICY_CONFIRMATION", 1L));
+		assertThat(map(snapshot.get("entity_counts")))
+				.contains(entry("CUSTOMER_ID", 3L), entry("CONTRACT_NUMBER", 3L), entry("COMPANY_NAME", 0L));
+		assertThat(map(snapshot.get("distinct_estimates")))
+				.contains(entry("CUSTOMER_ID", 2L), entry("CONTRACT_NUMBER", 1L), entry("COMPANY_NAME", 0L));
+		assertThat(map(snapshot.get("document_length_tokens"))).containsEntry("count", 3L);
+
+		Map<String, Object> labels = map(snapshot.get("label_distribution"));
+		assertThat(labels.keySet()).containsExactly("test", "train");
+		assertThat(map(labels.get("train"))).contains(entry("S-CUSTOMER_ID", 2L), entry("S-CONTRACT_NUMBER", 2L));
+		assertThat(map(labels.get("test"))).contains(entry("S-CUSTOMER_ID", 1L));
+	}
+
+	@Test
+	void startClearsPreviousRunAndFinishWritesSnapshot() throws IOException {
+		collector.start(statistics);
+		record(DocumentType.CLAIM_REPORT, "KD-123456", "train");
+
+		collector.start(statistics);
+		record(DocumentType.CLAIM_REPORT, "KD-654321", "dev");
+		collector.finish();
+
+		JsonNode written = new ObjectMapper().readTree(statistics.resolve("running_stats.json").toFile());
+		assertThat(written.path("documents").asLong()).isEqualTo(1);
+		assertThat(written.path("distinct_estimates").path("CUSTOMER_ID").asLong()).isEqualTo(1);
+		assertThat(List.of(written.path("label_distribution").fieldNames().next())).containsExactly("dev");
+	}
+}
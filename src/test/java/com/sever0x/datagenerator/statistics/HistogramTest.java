@@ -0,0 +1,43 @@
+package com.sever0x.datagenerator.statistics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class HistogramTest {
+
+	@Test
+	void summarizesRecordedValues() {
+		Histogram histogram = new Histogram(10);
+		for (int value = 1; value <= 10; value++) {
+			histogram.record(value);
+		}
+
+		Map<String, Object> summary = histogram.toMap();
+		assertThat(summary).containsEntry("count", 10L).containsEntry("mean", 5.5)
+				.containsEntry("p50", 5).containsEntry("p90", 9).containsEntry("p99", 10);
+	}
+
+	@Test
+	void collectsValuesAboveMaximumInOverflowBucket() {
+		Histogram histogram = new Histogram(3);
+		histogram.record(2);
+		histogram.record(7);
+		histogram.record(40);
+
+		@SuppressWarnings("unchecked")
+		Map<String, Long> buckets = (Map<String, Long>) histogram.toMap().get("buckets");
+		assertThat(buckets).containsExactly(entry("2", 1L), entry(">3", 2L));
+		assertThat(histogram.toMap()).containsEntry("p99", 4);
+	}
+
+	@Test
+	void emptyHistogramHasZeroPercentiles() {
+		Map<String, Object> summary = new Histogram(5).toMap();
+
+		assertThat(summary).containsEntry("count", 0L).containsEntry("p50", 0).containsEntry("p99", 0);
+	}
+}
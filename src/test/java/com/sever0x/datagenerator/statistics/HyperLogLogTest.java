@@ -0,0 +1,40 @@
+package com.sever0x.datagenerator.statistics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+	@Test
+	void countsSmallSetsExactly() {
+		HyperLogLog sketch = new HyperLogLog();
+		for (int i = 0; i < 3; i++) {
+			sketch.add("POL-1000");
+			sketch.add("POL-1001");
+			sketch.add("POL-1002");
+		}
+
+		assertThat(sketch.estimate()).isEqualTo(3);
+	}
+
+	@Test
+	void estimatesLargeSetsWithinFivePercent() {
+		HyperLogLog sketch = new HyperLogLog();
+		for (int i = 0; i < 100_000; i++) {
+			sketch.add("KD-" + i);
+		}
+
+		assertThat(sketch.estimate()).isCloseTo(100_000L, within(5_000L));
+	}
+
+	@Test
+	void clearForgetsEverything() {
+		HyperLogLog sketch = new HyperLogLog();
+		sketch.add("Allianz Versicherungs-AG");
+		sketch.clear();
+
+		assertThat(sketch.estimate()).isZero();
+	}
+}
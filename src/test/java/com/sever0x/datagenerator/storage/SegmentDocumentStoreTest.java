@@ -0,0 +1,87 @@
+package com.sever0x.datagenerator.storage;
+
+import com.sever0x.datagenerator.types.DocumentType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class SegmentDocumentStoreTest {
+
+	@TempDir
+	Path dataset;
+
+	private DocumentStore.Documents open() throws IOException {
+		SegmentDocumentStore store = new SegmentDocumentStore();
+		ReflectionTestUtils.setField(store, "segmentSizeMb", 1L);
+		return store.open(dataset);
+	}
+
+	private long segmentBytes() throws IOException {
+		return Files.size(dataset.resolve("segments").resolve(DocumentKind.ANNOTATED.getDirectory()).resolve("seg-00000.dat"));
+	}
+
+	@Test
+	void rewriteThatFitsStaysInPlace() throws IOException {
+		try (DocumentStore.Documents documents = open()) {
+			documents.write(DocumentKind.ANNOTATED, 1, DocumentType.CLAIM_REPORT, "Max B-PER\nMustermann I-PER\n");
+			documents.write(DocumentKind.ANNOTATED, 2, DocumentType.CLAIM_REPORT, "Köln B-LOC\n");
+			long size = segmentBytes();
+
+			documents.write(DocumentKind.ANNOTATED, 1, DocumentType.CLAIM_REPORT, "Max O\nMustermann O\n");
+			documents.write(DocumentKind.ANNOTATED, 2, DocumentType.CLAIM_REPORT, "Köln B-ORG\n");
+
+			assertThat(segmentBytes()).isEqualTo(size);
+			assertThat(documents.read(DocumentKind.ANNOTATED, 1, null)).isEqualTo("Max O\nMustermann O\n");
+			assertThat(documents.read(DocumentKind.ANNOTATED, 2, null)).isEqualTo("Köln B-ORG\n");
+		}
+	}
+
+	@Test
+	void rewriteThatGrowsIsAppended() throws IOException {
+		try (DocumentStore.Documents documents = open()) {
+			documents.write(DocumentKind.ANNOTATED, 1, DocumentType.CLAIM_REPORT, "Max O\n");
+			documents.write(DocumentKind.ANNOTATED, 2, DocumentType.CLAIM_REPORT, "Köln B-LOC\n");
+			documents.write(DocumentKind.ANNOTATED, 1, DocumentType.POLICY_CONFIRMATION, "Max B-PER\nMustermann I-PER\n");
+
+			assertThat(documents.read(DocumentKind.ANNOTATED, 1, null)).isEqualTo("Max B-PER\nMustermann I-PER\n");
+			assertThat(documents.read(DocumentKind.ANNOTATED, 2, null)).isEqualTo("Köln B-LOC\n");
+			assertThat(documents.list(DocumentKind.ANNOTATED))
+					.extracting(StoredDocument::getDocumentId, StoredDocument::getDocumentType)
+					.containsExactly(
+							tuple(1, DocumentType.POLICY_CONFIRMATION),
+							tuple(2, DocumentType.CLAIM_REPORT));
+		}
+	}
+
+	@Test
+	void listedLocationSurvivesRewrites() throws IOException {
+		try (DocumentStore.Documents documents = open()) {
+			documents.write(DocumentKind.RAW, 3, DocumentType.CLAIM_REPORT, "Schaden");
+			String location = documents.list(DocumentKind.RAW).get(0).getLocation();
+
+			documents.write(DocumentKind.RAW, 3, DocumentType.CLAIM_REPORT, "Schadensmeldung mit mehr Text");
+
+			assertThat(documents.list(DocumentKind.RAW)).extracting(StoredDocument::getLocation).containsExactly(location);
+			assertThat(location).endsWith("raw_documents#3");
+		}
+	}
+
+	@Test
+	void reopenedStoreReadsRewrittenDocuments() throws IOException {
+		try (DocumentStore.Documents documents = open()) {
+			documents.write(DocumentKind.RAW, 1, DocumentType.CLAIM_REPORT, "Schadenmeldung Nr. 1");
+			documents.write(DocumentKind.RAW, 1, DocumentType.CLAIM_REPORT, "Schaden 1");
+		}
+		try (DocumentStore.Documents documents = open()) {
+			assertThat(documents.read(DocumentKind.RAW, 1, null)).isEqualTo("Schaden 1");
+			assertThat(documents.read(DocumentKind.BY_TYPE, 1, DocumentType.CLAIM_REPORT)).isEqualTo("Schaden 1");
+		}
+	}
+}